@@ -0,0 +1,161 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryConverter;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserContainer;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+/**
+ * Compares the JSON <code>esg-node</code> and the binary <code>esg-node-binary</code> formats on the
+ * same values, as well as forecasts in the plain and deflated delta encoding. The payload sizes of
+ * every format are printed once per trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class NodeFormatBenchmark {
+
+    static final String POWER_TOPIC = "esg/node/power";
+    static final String FORECAST_TOPIC = "esg/node/stimulus/forecast";
+
+    /**
+     * Number of distinct forecast payloads to cycle through, to exceed the forecast decode cache.
+     */
+    static final int FORECAST_PAYLOADS = 256;
+
+    @Param({ "json", "binary", "delta", "deflate" })
+    String format;
+
+    NodeParser parser;
+
+    final NodeParserContainer powerContainer = new NodeParserContainer(POWER_TOPIC);
+    final NodeParserContainer[] forecastContainers = new NodeParserContainer[24];
+
+    final Record powerRecord = new Record(new DoubleValue(100000.), System.currentTimeMillis());
+
+    List<LoggingRecord> forecast96;
+
+    byte[] power;
+    byte[][] forecasts;
+
+    int index;
+
+    @Setup(Level.Trial)
+    public void setup() throws SerializationException {
+        NodeParserOptions options = NodeParserOptions.DEFAULT;
+        switch (format) {
+        case "binary":
+            parser = new BinaryNodeParser();
+            break;
+        case "delta":
+            parser = new NodeParser(options.withSeriesEncoding(SeriesEncoding.DELTA));
+            break;
+        case "deflate":
+            parser = new NodeParser(options.withSeriesEncoding(SeriesEncoding.DELTA).withSeriesCompression(true));
+            break;
+        default:
+            parser = new NodeParser();
+        }
+        
+        power = parser.serialize(powerRecord, powerContainer);
+        forecast96 = forecast(96, 0);
+        forecasts = new byte[FORECAST_PAYLOADS][];
+        for (int i = 0; i < FORECAST_PAYLOADS; i++) {
+            forecasts[i] = parser.serialize(forecast(24, i));
+        }
+        for (int hour = 0; hour < forecastContainers.length; hour++) {
+            forecastContainers[hour] = new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour);
+        }
+        System.out.printf("%n%s: value of %d bytes, forecast of 24 hours of %d bytes, of 96 hours of %d bytes%n",
+                format, power.length, forecasts[0].length, parser.serialize(forecast96).length);
+    }
+
+    private static List<LoggingRecord> forecast(int hours, int offset) {
+        List<LoggingRecord> containers = new ArrayList<LoggingRecord>(hours);
+        for (int hour = 0; hour < hours; hour++) {
+            containers.add(new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour, (hour + offset)/100.));
+        }
+        return containers;
+    }
+
+    @Benchmark
+    public byte[] serializePower() throws SerializationException {
+        return parser.serialize(powerRecord, powerContainer);
+    }
+
+    @Benchmark
+    public Record deserializePower() {
+        return parser.deserialize(power, powerContainer);
+    }
+
+    @Benchmark
+    public byte[] serializeForecast96() throws SerializationException {
+        return parser.serialize(forecast96);
+    }
+
+    @Benchmark
+    public Record deserializeForecastPayload() {
+        index = (index + 1) % FORECAST_PAYLOADS;
+        return parser.deserialize(forecasts[index], forecastContainers[index % 24]);
+    }
+
+    /**
+     * Converts forecasts into the respective other format, as a gateway between both formats would.
+     */
+    @Benchmark
+    public byte[] convertForecast() {
+        index = (index + 1) % FORECAST_PAYLOADS;
+        if (format.equals("json")) {
+            return BinaryConverter.toBinary(forecasts[index]);
+        }
+        return BinaryConverter.toJson(forecasts[index]);
+    }
+
+}
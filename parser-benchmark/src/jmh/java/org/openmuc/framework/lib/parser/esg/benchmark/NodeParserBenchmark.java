@@ -0,0 +1,461 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.ForecastAssembler;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.Aggregation;
+import org.openmuc.framework.lib.parser.esg.RecordCoalescer;
+import org.openmuc.framework.lib.parser.esg.RecordSeries;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserContainer;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserTest;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+/**
+ * Throughput and allocation benchmarks of the {@link NodeParser} hot paths.
+ * <p>
+ * Every benchmark is declared once and run single threaded by {@link SingleThread} and with all
+ * available processors by {@link MultiThread}, sharing one parser instance like the driver and
+ * datalogger do. Run with the GC profiler to report the allocation rate per operation:
+ * <pre>
+ * gradle :parser-benchmark:jmh
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class NodeParserBenchmark {
+
+    @Threads(1)
+    public static class SingleThread extends NodeParserBenchmark {
+    }
+
+    @Threads(Threads.MAX)
+    public static class MultiThread extends NodeParserBenchmark {
+    }
+
+    @State(Scope.Benchmark)
+    public static class ParserState {
+
+        static final String POWER_TOPIC = "esg/node/power";
+        static final String ENERGY_TOPIC = "esg/node/energy";
+        static final String STIMULUS_TOPIC = "esg/node/stimulus";
+        static final String FORECAST_TOPIC = "esg/node/stimulus/forecast";
+
+        /**
+         * Number of distinct forecast payloads to cycle through, to exceed the forecast decode cache.
+         */
+        static final int FORECAST_PAYLOADS = 256;
+
+        /**
+         * Number of nodes in a logger batch, each with a forecast and a power topic.
+         */
+        static final int BATCH_NODES = 16;
+
+        final NodeParser parser = new NodeParser();
+        /**
+         * Number of quarter hours of a weekly forecast.
+         */
+        static final int WEEK_SLOTS = 7*96;
+
+        final NodeParser weekParser = new NodeParser(NodeParserOptions.DEFAULT.withResolution(15));
+
+        final NodeParser aggregatingParser = new NodeParser(NodeParserOptions.DEFAULT
+                .withAggregation(Aggregation.MEAN).withResolution(15));
+
+        final NodeParserContainer powerContainer = new NodeParserContainer(POWER_TOPIC);
+        final NodeParserContainer energyContainer = new NodeParserContainer(ENERGY_TOPIC);
+        final NodeParserContainer stimulusContainer = new NodeParserContainer(STIMULUS_TOPIC);
+
+        final NodeParserContainer[] forecastContainers = new NodeParserContainer[24];
+
+        /**
+         * Updates of a power ramp, that are published one by one or coalesced to the latest.
+         */
+        final NodeParserContainer[] powerBurst = new NodeParserContainer[10];
+        final List<NodeParserContainer> forecastChannels = Arrays.asList(forecastContainers);
+
+        final Record powerRecord = new Record(new DoubleValue(100000.), System.currentTimeMillis());
+        final Record energyRecord = new Record(new DoubleValue(1234.5), System.currentTimeMillis());
+        final Record stimulusRecord = new Record(new DoubleValue(.5), System.currentTimeMillis());
+
+        byte[] powerJson;
+        byte[] energyJson;
+        byte[] stimulusJson;
+
+        byte[] malformedJson;
+
+        List<LoggingRecord> forecast24;
+        List<LoggingRecord> forecast96;
+        List<LoggingRecord> forecastMinutes;
+        List<LoggingRecord> forecastWeek;
+        byte[] forecastWeekJson;
+        RecordSeries forecastWeekSeries;
+
+        byte[] forecastJson;
+        byte[][] forecastJsonVariants;
+
+        List<LoggingRecord> batch;
+        List<List<LoggingRecord>> batchTopics;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException, SerializationException {
+            powerJson = readFixture("power.json");
+            stimulusJson = readFixture("stimulus.json");
+            energyJson = parser.serialize(energyRecord, energyContainer);
+            
+            malformedJson = "{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":".getBytes(StandardCharsets.UTF_8);
+            
+            forecast24 = forecast(24, 0);
+            forecast96 = forecast(96, 0);
+            forecastWeek = new ArrayList<LoggingRecord>(WEEK_SLOTS);
+            for (int slot = 0; slot < WEEK_SLOTS; slot++) {
+                forecastWeek.add(new NodeParserContainer(FORECAST_TOPIC, "hour=" + slot/4 + ";minute=" + slot%4*15, 
+                        slot/(double) WEEK_SLOTS));
+            }
+            forecastWeekJson = weekParser.serialize(forecastWeek);
+            forecastWeekSeries = weekParser.deserializeSeries(forecastWeekJson, new NodeParserContainer(FORECAST_TOPIC, "hour=0"));
+            
+            forecastMinutes = new ArrayList<LoggingRecord>(24*60);
+            for (int minute = 0; minute < 24*60; minute++) {
+                forecastMinutes.add(new NodeParserContainer(FORECAST_TOPIC, "hour=" + minute/60 + ";minute=" + minute%60, 
+                        minute/1440.));
+            }
+            
+            forecastJson = parser.serialize(forecast24);
+            forecastJsonVariants = new byte[FORECAST_PAYLOADS][];
+            for (int i = 0; i < FORECAST_PAYLOADS; i++) {
+                forecastJsonVariants[i] = parser.serialize(forecast(24, i));
+            }
+            for (int i = 0; i < powerBurst.length; i++) {
+                powerBurst[i] = new NodeParserContainer(POWER_TOPIC, "", new Record(new DoubleValue(1000.*i), System.currentTimeMillis()));
+            }
+            for (int hour = 0; hour < forecastContainers.length; hour++) {
+                forecastContainers[hour] = new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour);
+            }
+            batch = new ArrayList<LoggingRecord>();
+            batchTopics = new ArrayList<List<LoggingRecord>>();
+            for (int node = 0; node < BATCH_NODES; node++) {
+                List<LoggingRecord> forecast = new ArrayList<LoggingRecord>();
+                for (int hour = 0; hour < 24; hour++) {
+                    forecast.add(new NodeParserContainer("esg/node" + node + "/stimulus/forecast", "hour=" + hour, hour/100.));
+                }
+                List<LoggingRecord> power = new ArrayList<LoggingRecord>();
+                power.add(new NodeParserContainer("esg/node" + node + "/power", "", node*1000.));
+                
+                batchTopics.add(forecast);
+                batchTopics.add(power);
+                batch.addAll(forecast);
+                batch.addAll(power);
+            }
+        }
+
+        private static List<LoggingRecord> forecast(int hours, int offset) {
+            List<LoggingRecord> containers = new ArrayList<LoggingRecord>(hours);
+            for (int hour = 0; hour < hours; hour++) {
+                containers.add(new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour, (hour + offset)/100.));
+            }
+            return containers;
+        }
+
+        private static byte[] readFixture(String name) throws IOException {
+            try (InputStream stream = NodeParserTest.class.getResourceAsStream(name)) {
+                return stream.readAllBytes();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64*1024);
+
+        final double[] values = new double[ParserState.WEEK_SLOTS];
+
+        ForecastAssembler assembler;
+
+        RecordCoalescer coalescer;
+        int coalescedBytes;
+
+        List<LoggingRecord> forecast;
+        List<LoggingRecord> forecastUpdates;
+
+        int index;
+
+        @Setup(Level.Trial)
+        public void setup(ParserState state) throws SerializationException {
+            assembler = new ForecastAssembler(state.parser);
+            coalescer = new RecordCoalescer(state.parser, 0, TimeUnit.SECONDS, 0, (topic, payload) -> coalescedBytes += payload.length);
+            forecast = ParserState.forecast(24, 0);
+            forecastUpdates = ParserState.forecast(24, 1);
+            for (LoggingRecord container : forecast) {
+                assembler.update(container);
+            }
+        }
+
+        int next(int bound) {
+            index = (index + 1) % bound;
+            return index;
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePower(ParserState state) throws SerializationException {
+        return state.parser.serialize(state.powerRecord, state.powerContainer);
+    }
+
+    @Benchmark
+    public byte[] serializeEnergy(ParserState state) throws SerializationException {
+        return state.parser.serialize(state.energyRecord, state.energyContainer);
+    }
+
+    @Benchmark
+    public byte[] serializeStimulus(ParserState state) throws SerializationException {
+        return state.parser.serialize(state.stimulusRecord, state.stimulusContainer);
+    }
+
+    /**
+     * Serializes into a reused direct buffer, like a logger encoding into its network buffers.
+     */
+    @Benchmark
+    public int serializePowerToBuffer(ParserState state, ThreadState thread) throws SerializationException {
+        thread.buffer.clear();
+        return state.parser.serialize(state.powerRecord, state.powerContainer, thread.buffer);
+    }
+
+    @Benchmark
+    public int serializeForecast96ToBuffer(ParserState state, ThreadState thread) throws SerializationException {
+        thread.buffer.clear();
+        return state.parser.serialize(state.forecast96, thread.buffer);
+    }
+
+    /**
+     * Serializes an unchanged value, which is answered from the last payload of the topic.
+     */
+    @Benchmark
+    public byte[] serializePowerUnchanged(ParserState state) throws SerializationException {
+        return state.parser.serializeIfChanged(state.powerRecord, state.powerContainer);
+    }
+
+    @Benchmark
+    public byte[] serializeForecast24Unchanged(ParserState state) throws SerializationException {
+        return state.parser.serializeIfChanged(state.forecast24);
+    }
+
+    /**
+     * Serializes a logger batch of several topics one after another, as reference for {@link #serializeBatchAsync}.
+     */
+    @Benchmark
+    public void serializeBatch(ParserState state, Blackhole blackhole) throws SerializationException {
+        for (List<LoggingRecord> topic : state.batchTopics) {
+            blackhole.consume(state.parser.serialize(topic));
+        }
+    }
+
+    @Benchmark
+    public void serializeBatchAsync(ParserState state, Blackhole blackhole) {
+        for (CompletableFuture<byte[]> payload : state.parser.serializeAsync(state.batch).values()) {
+            blackhole.consume(payload.join());
+        }
+    }
+
+    @Benchmark
+    public Record deserializePower(ParserState state) {
+        return state.parser.deserialize(state.powerJson, state.powerContainer);
+    }
+
+    @Benchmark
+    public Record deserializeEnergy(ParserState state) {
+        return state.parser.deserialize(state.energyJson, state.energyContainer);
+    }
+
+    @Benchmark
+    public Record deserializeStimulus(ParserState state) {
+        return state.parser.deserialize(state.stimulusJson, state.stimulusContainer);
+    }
+
+    @Benchmark
+    public byte[] serializeForecast24(ParserState state) throws SerializationException {
+        return state.parser.serialize(state.forecast24);
+    }
+
+    @Benchmark
+    public byte[] serializeForecast96(ParserState state) throws SerializationException {
+        return state.parser.serialize(state.forecast96);
+    }
+
+    /**
+     * Serializes every update of a burst, as reference for {@link #coalesceBurst}.
+     */
+    @Benchmark
+    public void serializeBurst(ParserState state, Blackhole blackhole) throws SerializationException {
+        for (NodeParserContainer container : state.powerBurst) {
+            blackhole.consume(state.parser.serialize(container));
+        }
+    }
+
+    /**
+     * Coalesces a burst of updates and serializes only the latest one.
+     */
+    @Benchmark
+    public int coalesceBurst(ParserState state, ThreadState thread) throws SerializationException {
+        for (NodeParserContainer container : state.powerBurst) {
+            thread.coalescer.offer(container);
+        }
+        thread.coalescer.flush();
+        return thread.coalescedBytes;
+    }
+
+    /**
+     * Serializes a weekly forecast of quarter hours.
+     */
+    @Benchmark
+    public byte[] serializeForecastWeek(ParserState state) throws SerializationException {
+        return state.weekParser.serialize(state.forecastWeek);
+    }
+
+    /**
+     * Converts the values of a weekly forecast series into the units of the channel one by one, as
+     * reference for {@link #readForecastWeekBulk}.
+     */
+    @Benchmark
+    public double[] readForecastWeek(ParserState state, ThreadState thread) {
+        RecordSeries series = state.forecastWeekSeries;
+        for (int i = 0; i < series.size(); i++) {
+            thread.values[i] = series.getValue(i);
+        }
+        return thread.values;
+    }
+
+    /**
+     * Converts the values of a weekly forecast series into the units of the channel at once.
+     */
+    @Benchmark
+    public double[] readForecastWeekBulk(ParserState state, ThreadState thread) {
+        state.forecastWeekSeries.getValues(thread.values, 0);
+        return thread.values;
+    }
+
+    /**
+     * Serializes a day of minutely records, aggregated to the mean of every quarter hour.
+     */
+    @Benchmark
+    public byte[] serializeForecastMinutesAggregated(ParserState state) throws SerializationException {
+        return state.aggregatingParser.serialize(state.forecastMinutes);
+    }
+
+    /**
+     * Deserializes one hour of the same forecast payload, as every hourly channel does after the first one.
+     */
+    @Benchmark
+    public Record deserializeForecastHour(ParserState state, ThreadState thread) {
+        return state.parser.deserialize(state.forecastJson, state.forecastContainers[thread.next(24)]);
+    }
+
+    /**
+     * Deserializes all hours of always differing forecast payloads at once, as reference for
+     * {@link #deserializeForecastPayload}, which decodes a single hour only.
+     */
+    @Benchmark
+    public void deserializeForecastSeries(ParserState state, ThreadState thread, Blackhole blackhole) {
+        RecordSeries series = state.parser.deserializeSeries(state.forecastJsonVariants[thread.next(ParserState.FORECAST_PAYLOADS)],
+                state.forecastContainers[0]);
+        for (int i = 0; i < series.size(); i++) {
+            blackhole.consume(series.getValue(i));
+        }
+    }
+
+    /**
+     * Deserializes one hour of always differing forecast payloads, to measure the full decoding.
+     */
+    @Benchmark
+    public Record deserializeForecastPayload(ParserState state, ThreadState thread) {
+        int index = thread.next(ParserState.FORECAST_PAYLOADS);
+        return state.parser.deserialize(state.forecastJsonVariants[index], state.forecastContainers[index % 24]);
+    }
+
+    /**
+     * Deserializes always differing forecast payloads for the channels of all 24 hours, one call per
+     * channel like the driver, as reference for {@link #deserializeForecastFanout}.
+     */
+    @Benchmark
+    public void deserializeForecastChannels(ParserState state, ThreadState thread, Blackhole blackhole) {
+        byte[] payload = state.forecastJsonVariants[thread.next(ParserState.FORECAST_PAYLOADS)];
+        for (NodeParserContainer container : state.forecastContainers) {
+            blackhole.consume(state.parser.deserialize(payload, container));
+        }
+    }
+
+    /**
+     * Deserializes always differing forecast payloads for the channels of all 24 hours in one call.
+     */
+    @Benchmark
+    public List<Record> deserializeForecastFanout(ParserState state, ThreadState thread) {
+        return state.parser.deserialize(state.forecastJsonVariants[thread.next(ParserState.FORECAST_PAYLOADS)],
+                state.forecastChannels);
+    }
+
+    /**
+     * Updates a single hour of an assembled forecast and serializes the full series, re-encoding only the changed hour.
+     */
+    @Benchmark
+    public byte[] assembleForecastHour(ThreadState thread) throws SerializationException {
+        int hour = thread.next(48);
+        List<LoggingRecord> forecast = hour < 24 ? thread.forecastUpdates : thread.forecast;
+        thread.assembler.update(forecast.get(hour % 24));
+        return thread.assembler.serialize(ParserState.FORECAST_TOPIC);
+    }
+
+    @Benchmark
+    public Record deserializeMalformed(ParserState state) {
+        return state.parser.deserialize(state.malformedJson, state.powerContainer);
+    }
+
+}
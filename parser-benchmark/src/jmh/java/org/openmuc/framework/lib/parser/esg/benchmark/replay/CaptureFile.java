@@ -0,0 +1,214 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Capture of received payloads, as tuples of topic, channel settings and payload bytes.
+ * <p>
+ * A capture starts with the magic bytes <code>ESGC</code>, the version and the payload format,
+ * followed by the tuples, each as length prefixed topic, settings and payload. The file is mapped
+ * into memory when opened and only the positions of the payloads are indexed, so payloads are
+ * copied from the mapping on every replayed message, like a client receiving them from the broker.
+ * A mapping is limited to 2 GiB, so larger captures need to be split.
+ */
+public final class CaptureFile implements Closeable {
+
+    static final int MAGIC = 0x45534743;
+    static final int VERSION = 1;
+
+    public static final int FORMAT_JSON = 0;
+    public static final int FORMAT_BINARY = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final int format;
+
+    private String[] topics = new String[INITIAL_CAPACITY];
+    private String[] settings = new String[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private CaptureFile(FileChannel channel) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("Capture exceeds 2 GiB: " + channel.size());
+        }
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("No payload capture");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported capture version: " + version);
+        }
+        format = buffer.getInt();
+        index();
+    }
+
+    private void index() throws IOException {
+        // Topics and settings repeat for every message, so share their strings
+        Map<String, String> strings = new HashMap<String, String>();
+        while (buffer.hasRemaining()) {
+            if (size == offsets.length) {
+                int capacity = 2*size;
+                topics = Arrays.copyOf(topics, capacity);
+                settings = Arrays.copyOf(settings, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            try {
+                topics[size] = strings.computeIfAbsent(readString(), s -> s);
+                settings[size] = strings.computeIfAbsent(readString(), s -> s);
+                lengths[size] = buffer.getInt();
+                offsets[size] = buffer.position();
+                buffer.position(offsets[size] + lengths[size]);
+                
+            } catch (RuntimeException e) {
+                throw new IOException("Truncated capture at tuple " + size, e);
+            }
+            size++;
+        }
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static CaptureFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CaptureFile(channel);
+            
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Writer create(Path path, int format) throws IOException {
+        return new Writer(path, format);
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getTopic(int index) {
+        return topics[index];
+    }
+
+    public String getSettings(int index) {
+        return settings[index];
+    }
+
+    public int getPayloadLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Returns an independent view of the mapping, to read payloads from one thread.
+     */
+    public ByteBuffer view() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * Copies a payload out of the mapping, through a view of the reading thread.
+     */
+    public byte[] readPayload(ByteBuffer view, int index) {
+        byte[] payload = new byte[lengths[index]];
+        view.position(offsets[index]);
+        view.get(payload);
+        return payload;
+    }
+
+    public byte[] readPayload(int index) {
+        return readPayload(view(), index);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Appends tuples to a new capture.
+     */
+    public static final class Writer implements Closeable {
+
+        private final DataOutputStream stream;
+
+        private Writer(Path path, int format) throws IOException {
+            stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeInt(format);
+        }
+
+        public void write(String topic, String settings, byte[] payload) throws IOException {
+            writeString(topic);
+            writeString(settings);
+            stream.writeInt(payload.length);
+            stream.write(payload);
+        }
+
+        private void writeString(String string) throws IOException {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("String too long to capture: " + bytes.length);
+            }
+            stream.writeShort(bytes.length);
+            stream.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            stream.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserContainer;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+/**
+ * Generates a synthetic {@link CaptureFile} of a fleet of nodes, publishing their power, energy
+ * and stimulus every interval and a forecast of the stimulus for the next 24 hours every quarter
+ * hour. Like the driver, every forecast payload is received by the 24 channels of its hours.
+ * <pre>
+ * gradle :parser-benchmark:generateCapture -PreplayArgs="--output capture.bin --nodes 100 --intervals 60"
+ * </pre>
+ * Options:
+ * <ul>
+ * <li><code>--output</code>: the capture file to write, <code>capture.bin</code> by default.</li>
+ * <li><code>--nodes</code>: the number of nodes, 100 by default.</li>
+ * <li><code>--intervals</code>: the number of intervals of one minute, 60 by default.</li>
+ * <li><code>--format</code>: the payload format, <code>json</code> or <code>binary</code>.</li>
+ * <li><code>--malformed</code>: the fraction of truncated payloads, 0 by default.</li>
+ * <li><code>--seed</code>: the seed of the random values.</li>
+ * </ul>
+ */
+public class CaptureGenerator {
+
+    static final String POWER = "power";
+    static final String ENERGY = "energy";
+    static final String STIMULUS = "stimulus";
+    static final String FORECAST = "stimulus/forecast";
+
+    static final long INTERVAL = 60000;
+
+    static final int FORECAST_INTERVALS = 15;
+
+    private final NodeParser parser;
+    private final Random random;
+
+    private final double malformed;
+
+    public CaptureGenerator(int format, double malformed, long seed) {
+        this.parser = format == CaptureFile.FORMAT_BINARY ? new BinaryNodeParser() : new NodeParser();
+        this.random = new Random(seed);
+        this.malformed = malformed;
+    }
+
+    public int generate(CaptureFile.Writer writer, int nodes, int intervals, long start)
+            throws IOException, SerializationException {
+        double[] energy = new double[nodes];
+        int count = 0;
+        for (int interval = 0; interval < intervals; interval++) {
+            long timestamp = start + interval*INTERVAL;
+            for (int node = 0; node < nodes; node++) {
+                String prefix = "esg/node" + node + "/";
+                double power = 1000 + random.nextDouble()*9000;
+                energy[node] += power*INTERVAL/3600000000.;
+                
+                count += write(writer, prefix + POWER, "", new Record(new DoubleValue(power), timestamp, Flag.VALID));
+                count += write(writer, prefix + ENERGY, "", new Record(new DoubleValue(energy[node]), timestamp, Flag.VALID));
+                count += write(writer, prefix + STIMULUS, "", new Record(new DoubleValue(random.nextDouble()), timestamp, Flag.VALID));
+                
+                if (interval % FORECAST_INTERVALS == 0) {
+                    count += writeForecast(writer, prefix + FORECAST);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int write(CaptureFile.Writer writer, String topic, String settings, Record record)
+            throws IOException, SerializationException {
+        writer.write(topic, settings, corrupt(parser.serialize(record, new NodeParserContainer(topic, settings))));
+        return 1;
+    }
+
+    private int writeForecast(CaptureFile.Writer writer, String topic) throws IOException, SerializationException {
+        List<LoggingRecord> containers = new ArrayList<LoggingRecord>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            containers.add(new NodeParserContainer(topic, "hour=" + hour, random.nextDouble()));
+        }
+        byte[] payload = corrupt(parser.serialize(containers));
+        for (int hour = 0; hour < 24; hour++) {
+            writer.write(topic, "hour=" + hour, payload);
+        }
+        return 24;
+    }
+
+    private byte[] corrupt(byte[] payload) {
+        if (malformed > 0 && random.nextDouble() < malformed) {
+            return Arrays.copyOf(payload, random.nextInt(payload.length));
+        }
+        return payload;
+    }
+
+    public static void main(String[] args) throws IOException, SerializationException {
+        ReplayOptions options = new ReplayOptions(args);
+        Path output = Paths.get(options.get("output", "capture.bin"));
+        int format = options.getFormat();
+        
+        CaptureGenerator generator = new CaptureGenerator(format, options.getDouble("malformed", 0), 
+                options.getLong("seed", 42));
+        
+        int count;
+        try (CaptureFile.Writer writer = CaptureFile.create(output, format)) {
+            count = generator.generate(writer, options.getInt("nodes", 100), options.getInt("intervals", 60), 
+                    System.currentTimeMillis());
+        }
+        System.out.printf("Generated %d payloads in %s%n", count, output);
+    }
+
+}
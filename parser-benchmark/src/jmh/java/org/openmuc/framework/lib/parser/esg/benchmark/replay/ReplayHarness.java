@@ -0,0 +1,421 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark.replay;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.RecordSeries;
+import org.openmuc.framework.lib.parser.esg.metrics.LatencyHistogram;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserContainer;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+/**
+ * Replays a {@link CaptureFile} through a {@link NodeParser}, without an OSGi container, to
+ * reproduce the load of a production broker offline.
+ * <p>
+ * In the <code>deserialize</code> mode, every payload is copied from the mapped capture and
+ * deserialized for the channel it was captured for. In the <code>serialize</code> mode, the
+ * captured values are decoded once up front and every value is serialized again, with the payload
+ * received by all hours of a forecast serialized as one forecast.
+ * <p>
+ * The tuples are distributed among the threads, which loop over the capture as fast as possible or
+ * at a fixed total rate. At a fixed rate, latencies are measured from the time an operation was
+ * due, so a stalled parser is reported with the delay it caused for the following messages.
+ * <pre>
+ * gradle :parser-benchmark:replay -PreplayArgs="--capture capture.bin --threads 4 --rate 50000"
+ * </pre>
+ * Options:
+ * <ul>
+ * <li><code>--capture</code>: the capture file to replay, <code>capture.bin</code> by default.</li>
+ * <li><code>--mode</code>: <code>deserialize</code> or <code>serialize</code>.</li>
+ * <li><code>--threads</code>: the number of replaying threads, 1 by default.</li>
+ * <li><code>--rate</code>: the total operations per second, or 0 to replay at full speed.</li>
+ * <li><code>--warmup</code>: the seconds to replay before measuring, 5 by default.</li>
+ * <li><code>--duration</code>: the seconds to measure, 30 by default.</li>
+ * </ul>
+ */
+public class ReplayHarness {
+
+    public enum Mode {
+        DESERIALIZE,
+        SERIALIZE;
+    }
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final CaptureFile capture;
+    private final NodeParser parser;
+    private final Mode mode;
+
+    private final NodeParserContainer[] containers;
+    private final SerializeJob[] jobs;
+
+    public ReplayHarness(CaptureFile capture, Mode mode) {
+        this.capture = capture;
+        this.parser = capture.getFormat() == CaptureFile.FORMAT_BINARY ? new BinaryNodeParser() : new NodeParser();
+        this.mode = mode;
+        this.containers = createContainers(capture);
+        this.jobs = mode == Mode.SERIALIZE ? createJobs() : null;
+        if (size() == 0) {
+            throw new IllegalArgumentException("No valid payloads to replay");
+        }
+    }
+
+    private static NodeParserContainer[] createContainers(CaptureFile capture) {
+        Map<String, NodeParserContainer> channels = new HashMap<String, NodeParserContainer>();
+        NodeParserContainer[] containers = new NodeParserContainer[capture.size()];
+        for (int i = 0; i < containers.length; i++) {
+            String topic = capture.getTopic(i);
+            String settings = capture.getSettings(i);
+            containers[i] = channels.computeIfAbsent(topic + '\n' + settings, 
+                    k -> new NodeParserContainer(topic, settings));
+        }
+        return containers;
+    }
+
+    private SerializeJob[] createJobs() {
+        ZoneId zone = ZoneId.systemDefault();
+        List<SerializeJob> jobs = new ArrayList<SerializeJob>();
+        String forecastTopic = null;
+        byte[] forecastPayload = null;
+        for (int i = 0; i < containers.length; i++) {
+            String topic = capture.getTopic(i);
+            byte[] payload = capture.readPayload(i);
+            if (!topic.endsWith("/forecast")) {
+                Record record = parser.deserialize(payload, containers[i]);
+                if (record.getFlag() == Flag.VALID) {
+                    jobs.add(new SerializeJob(record, containers[i]));
+                }
+                continue;
+            }
+            if (topic.equals(forecastTopic) && Arrays.equals(payload, forecastPayload)) {
+                // The same forecast, received by the channel of another hour
+                continue;
+            }
+            forecastTopic = topic;
+            forecastPayload = payload;
+            
+            RecordSeries series = parser.deserializeSeries(payload, containers[i]);
+            if (series.getFlag() != Flag.VALID) {
+                continue;
+            }
+            List<LoggingRecord> forecast = new ArrayList<LoggingRecord>(series.size());
+            for (int j = 0; j < series.size(); j++) {
+                int hour = Instant.ofEpochMilli(series.getTimestamp(j)).atZone(zone).getHour();
+                forecast.add(new NodeParserContainer(topic, "hour=" + hour, series.get(j)));
+            }
+            jobs.add(new SerializeJob(forecast));
+        }
+        return jobs.toArray(new SerializeJob[0]);
+    }
+
+    public NodeParser getParser() {
+        return parser;
+    }
+
+    /**
+     * Returns the number of operations of one pass over the capture.
+     */
+    public int size() {
+        return jobs != null ? jobs.length : containers.length;
+    }
+
+    /**
+     * Replays the capture for the given duration, with the given number of threads at a total rate
+     * of operations per second, or at full speed if the rate is 0.
+     */
+    public Result run(int threads, long rate, long duration, TimeUnit unit) throws InterruptedException {
+        long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(threads)/rate : 0;
+        Result result = new Result(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i, threads, interval, result, ready, start);
+            workers[i].start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        
+        TimeUnit.NANOSECONDS.sleep(unit.toNanos(duration));
+        for (Worker worker : workers) {
+            worker.running = false;
+        }
+        for (Worker worker : workers) {
+            worker.join();
+        }
+        result.nanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    private int replay(int index, ByteBuffer view) throws SerializationException {
+        if (mode == Mode.SERIALIZE) {
+            return jobs[index].run(parser);
+        }
+        byte[] payload = capture.readPayload(view, index);
+        Record record = parser.deserialize(payload, containers[index]);
+        if (record.getFlag() != Flag.VALID) {
+            return -1;
+        }
+        return payload.length;
+    }
+
+    private static long getAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private class Worker extends Thread {
+
+        private final int offset;
+        private final int stride;
+        private final long interval;
+
+        private final Result result;
+
+        private final CountDownLatch ready;
+        private final CountDownLatch start;
+
+        volatile boolean running = true;
+
+        Worker(int offset, int stride, long interval, Result result, CountDownLatch ready, CountDownLatch start) {
+            super("replay-" + offset);
+            this.offset = offset;
+            this.stride = stride;
+            this.interval = interval;
+            this.result = result;
+            this.ready = ready;
+            this.start = start;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            ByteBuffer view = capture.view();
+            LatencyHistogram latency = result.latency;
+            int size = size();
+            int index = offset % size;
+            long operations = 0;
+            long errors = 0;
+            long bytes = 0;
+            
+            ready.countDown();
+            try {
+                start.await();
+                
+            } catch (InterruptedException e) {
+                return;
+            }
+            long allocated = getAllocatedBytes();
+            long next = System.nanoTime();
+            while (running) {
+                long begin;
+                if (interval > 0) {
+                    begin = next;
+                    next += interval;
+                    long delay;
+                    while ((delay = begin - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                }
+                else {
+                    begin = System.nanoTime();
+                }
+                int length;
+                try {
+                    length = replay(index, view);
+                    
+                } catch (SerializationException | RuntimeException e) {
+                    length = -1;
+                }
+                latency.record(System.nanoTime() - begin);
+                operations++;
+                if (length < 0) {
+                    errors++;
+                }
+                else {
+                    bytes += length;
+                }
+                index += stride;
+                if (index >= size) {
+                    index %= size;
+                }
+            }
+            if (allocated >= 0) {
+                result.allocated.add(getAllocatedBytes() - allocated);
+            }
+            else {
+                result.allocationSupported = false;
+            }
+            result.operations.add(operations);
+            result.errors.add(errors);
+            result.bytes.add(bytes);
+        }
+    }
+
+    private static final class SerializeJob {
+
+        private final Record record;
+        private final NodeParserContainer container;
+
+        private final List<LoggingRecord> forecast;
+
+        SerializeJob(Record record, NodeParserContainer container) {
+            this.record = record;
+            this.container = container;
+            this.forecast = null;
+        }
+
+        SerializeJob(List<LoggingRecord> forecast) {
+            this.record = null;
+            this.container = null;
+            this.forecast = forecast;
+        }
+
+        int run(NodeParser parser) throws SerializationException {
+            byte[] payload = forecast != null ? parser.serialize(forecast) : parser.serialize(record, container);
+            return payload.length;
+        }
+    }
+
+    /**
+     * Throughput, latencies and allocation of a replay.
+     */
+    public static class Result {
+
+        private final int threads;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder allocated = new LongAdder();
+
+        private volatile boolean allocationSupported = true;
+
+        private long nanos;
+
+        Result(int threads) {
+            this.threads = threads;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getOperations() {
+            return operations.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public double getThroughput() {
+            return getOperations()*1e9/nanos;
+        }
+
+        /**
+         * Returns the payload bytes per second, received or serialized depending on the mode.
+         */
+        public double getBytesPerSecond() {
+            return bytes.sum()*1e9/nanos;
+        }
+
+        /**
+         * Returns the bytes allocated per operation by the replaying threads, or -1 if the JVM does
+         * not support measuring the allocation of threads.
+         */
+        public double getAllocatedBytesPerOperation() {
+            long operations = getOperations();
+            if (!allocationSupported || operations == 0) {
+                return -1;
+            }
+            return (double) allocated.sum()/operations;
+        }
+
+        public void print(PrintStream stream) {
+            stream.printf(Locale.ROOT, "Operations:  %d on %d threads in %.1f s, %d errors%n", 
+                    getOperations(), threads, nanos/1e9, getErrors());
+            stream.printf(Locale.ROOT, "Throughput:  %.0f ops/s, %.2f MB/s%n", 
+                    getThroughput(), getBytesPerSecond()/1e6);
+            stream.printf(Locale.ROOT, "Latency:     p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n", 
+                    latency.getPercentile(50)/1e3, latency.getPercentile(90)/1e3, latency.getPercentile(99)/1e3, 
+                    latency.getPercentile(99.9)/1e3, latency.getMax()/1e3);
+            double allocation = getAllocatedBytesPerOperation();
+            if (allocation >= 0) {
+                stream.printf(Locale.ROOT, "Allocation:  %.0f bytes/op%n", allocation);
+            }
+            else {
+                stream.println("Allocation:  unsupported");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ReplayOptions options = new ReplayOptions(args);
+        Mode mode = Mode.valueOf(options.get("mode", "deserialize").toUpperCase(Locale.ROOT));
+        int threads = options.getInt("threads", 1);
+        long rate = options.getLong("rate", 0);
+        
+        try (CaptureFile capture = CaptureFile.open(Paths.get(options.get("capture", "capture.bin")))) {
+            ReplayHarness harness = new ReplayHarness(capture, mode);
+            System.out.printf("Replaying %d payloads as %d %s operations per pass%n", 
+                    capture.size(), harness.size(), mode.name().toLowerCase(Locale.ROOT));
+            
+            int warmup = options.getInt("warmup", 5);
+            if (warmup > 0) {
+                harness.run(threads, rate, warmup, TimeUnit.SECONDS);
+            }
+            harness.run(threads, rate, options.getInt("duration", 30), TimeUnit.SECONDS).print(System.out);
+        }
+    }
+
+}
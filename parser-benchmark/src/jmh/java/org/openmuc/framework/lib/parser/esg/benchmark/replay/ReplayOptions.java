@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.benchmark.replay;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the replay tools, given as <code>--name value</code> pairs.
+ */
+class ReplayOptions {
+
+    private final Map<String, String> options = new HashMap<String, String>();
+
+    ReplayOptions(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected an option and its value: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = options.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    double getDouble(String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    int getFormat() {
+        String format = get("format", "json");
+        switch (format) {
+        case "json":
+            return CaptureFile.FORMAT_JSON;
+        case "binary":
+            return CaptureFile.FORMAT_BINARY;
+        default:
+            throw new IllegalArgumentException("Unknown payload format: " + format);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Default executor of asynchronous batch serializations. On Java 21 and later, every topic is encoded
+ * on its own virtual thread, otherwise the common {@link ForkJoinPool} is used.
+ * <p>
+ * The virtual thread executor is looked up at runtime, as the library is still compiled for Java 8.
+ */
+final class BatchExecutor {
+
+    private static final Executor DEFAULT = createDefault();
+
+    private BatchExecutor() {
+    }
+
+    static Executor getDefault() {
+        return DEFAULT;
+    }
+
+    private static Executor createDefault() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+            
+        } catch (Throwable e) {
+            return ForkJoinPool.commonPool();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryParseException;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryValueReader;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * The compact binary format of the <code>esg-node-binary</code> parser.
+ * <p>
+ * Binary series may also be delta encoded and deflated, which the {@link NodeParser} of any format
+ * can be configured to write forecasts in. Writers, deflaters and inflaters are pooled per thread.
+ */
+class BinaryNodeFormat implements NodeFormat {
+
+    private static final ThreadLocal<BinaryValueWriter> WRITERS = ThreadLocal.withInitial(BinaryValueWriter::new);
+
+    private static final int WRITER_CAPACITY_LIMIT = 64*1024;
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public PayloadBuffer writeValue(long timestamp, int offset, double value, JsonValueType type) {
+        BinaryValueWriter writer = writer();
+        writer.writeValue(timestamp, offset, value, type);
+        return writer;
+    }
+
+    @Override
+    public PayloadBuffer writeSeries(JsonValueList series, JsonValueType type) {
+        BinaryValueWriter writer = writer();
+        writer.writeSeries(series, type);
+        return writer;
+    }
+
+    @Override
+    public Record readValue(byte[] payload, JsonValueType type) throws JsonParseException {
+        BinaryValueReader reader = new BinaryValueReader(payload);
+        if (reader.getType() != null && reader.getType() != type) {
+            throw new BinaryParseException("Received value of type " + reader.getType() + " for topic of type " + type);
+        }
+        reader.readValue();
+        reader.end();
+        return new Record(new DoubleValue(reader.getValue() / type.getScaling()), reader.getEpochMilli(), Flag.VALID);
+    }
+
+    /**
+     * Decodes a single value, rejecting payloads of other encodings without an exception. Payloads
+     * with a valid header but a malformed body fail with an exception without stack trace.
+     */
+    @Override
+    public Record decodeValue(byte[] payload, JsonValueType type) {
+        if (!BinaryValueReader.isBinary(payload)) {
+            return null;
+        }
+        try {
+            return readValue(payload, type);
+            
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public JsonValueList readSeries(byte[] payload) throws JsonParseException {
+        return readBinarySeries(payload);
+    }
+
+    static PayloadBuffer writeDeltaSeries(JsonValueList series, JsonValueType type, boolean compression) {
+        BinaryValueWriter writer = writer();
+        writer.writeDeltaSeries(series, type, compression ? DEFLATERS.get() : null);
+        return writer;
+    }
+
+    /**
+     * Reads a binary series of any encoding into a new, sorted list.
+     */
+    static JsonValueList readBinarySeries(byte[] payload) throws JsonParseException {
+        BinaryValueReader reader = new BinaryValueReader(payload, INFLATERS.get());
+        JsonValueList values = reader.readSeries();
+        reader.end();
+        values.sort();
+        return values;
+    }
+
+    @Override
+    public String toString(byte[] payload, int length) {
+        length = Math.min(length, payload.length);
+        char[] chars = new char[2*length];
+        for (int i = 0; i < length; i++) {
+            chars[2*i] = HEX[(payload[i] >> 4) & 0xF];
+            chars[2*i + 1] = HEX[payload[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static BinaryValueWriter writer() {
+        BinaryValueWriter writer = WRITERS.get();
+        if (writer.capacity() > WRITER_CAPACITY_LIMIT) {
+            writer = new BinaryValueWriter();
+            WRITERS.set(writer);
+        }
+        writer.reset();
+        return writer;
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import org.openmuc.framework.lib.parser.esg.metrics.NodeParserMetrics;
+
+/**
+ * Easy Smart Grid Stimulus parser, exchanging the values of the {@link NodeParser} in a compact
+ * binary format instead of JSON text. Payloads are about a quarter of the size of their JSON
+ * counterparts and can be converted to and from JSON with the
+ * {@link org.openmuc.framework.lib.parser.esg.binary.BinaryConverter}.
+ */
+public class BinaryNodeParser extends NodeParser {
+
+    public BinaryNodeParser() {
+        this(new NodeParserMetrics());
+    }
+
+    public BinaryNodeParser(NodeParserMetrics metrics) {
+        this(NodeParserOptions.DEFAULT, metrics);
+    }
+
+    public BinaryNodeParser(NodeParserOptions options) {
+        this(options, new NodeParserMetrics());
+    }
+
+    public BinaryNodeParser(NodeParserOptions options, NodeParserMetrics metrics) {
+        super(new BinaryNodeFormat(), options, metrics);
+    }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.parser.spi.SerializationContainer;
+import org.openmuc.framework.parser.spi.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable description of a channel, parsed once from its address or logging settings and its
+ * channel settings. Instances are cached, as channel configurations only change when reloaded.
+ * <p>
+ * The forecast hour and minute of a channel are validated when it is parsed, so misconfigured
+ * channels are reported once and fail with their configuration error, instead of mapping onto
+ * arbitrary slots.
+ */
+final class ChannelDescriptor {
+
+    static final int HOUR_UNDEFINED = -1;
+
+    private static final int SETTING_INVALID = -2;
+
+    /**
+     * Largest forecast hour, of which the minute of the day can not overflow.
+     */
+    private static final int MAX_HOUR = Integer.MAX_VALUE/60 - 1;
+
+    private static final String FORECAST_SUFFIX = "/forecast";
+
+    private final String topic;
+    private final String settings;
+
+    private final JsonValueType type;
+
+    private final boolean forecast;
+
+    private final int hour;
+    private final int minute;
+
+    /**
+     * The configuration error of the channel, or null if it is valid.
+     */
+    private final String error;
+
+    private ChannelDescriptor(String topic, String settings) {
+        this.topic = topic;
+        this.settings = settings;
+        this.forecast = topic.endsWith(FORECAST_SUFFIX);
+        
+        String baseTopic = forecast ? topic.substring(0, topic.length() - FORECAST_SUFFIX.length()) : topic;
+        this.type = parseType(baseTopic);
+        
+        int hour = parseSetting(settings, "hour");
+        int minute = parseSetting(settings, "minute");
+        this.error = forecast ? validate(hour, minute, settings) : null;
+        this.hour = error == null && hour >= 0 ? hour : HOUR_UNDEFINED;
+        this.minute = error == null && minute >= 0 ? minute : 0;
+    }
+
+    private static String validate(int hour, int minute, String settings) {
+        if (hour == SETTING_INVALID || hour > MAX_HOUR) {
+            return "Invalid forecast hour in settings: " + settings;
+        }
+        if (minute == SETTING_INVALID || minute >= 60) {
+            return "Invalid forecast minute in settings: " + settings;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the topic as configured, including an eventual trailing forecast path.
+     */
+    String getTopic() {
+        return topic;
+    }
+
+    String getSettings() {
+        return settings;
+    }
+
+    boolean isForecast() {
+        return forecast;
+    }
+
+    boolean hasType() {
+        return type != null;
+    }
+
+    /**
+     * Returns the value type of the topic, or null if it is unknown.
+     */
+    JsonValueType getType() {
+        return type;
+    }
+
+    JsonValueType requireType() throws SerializationException {
+        if (type == null) {
+            throw new SerializationException("Unknown value type of topic: " + topic);
+        }
+        return type;
+    }
+
+    /**
+     * Returns the configuration error of the channel, or null if it is valid.
+     */
+    String getError() {
+        return error;
+    }
+
+    boolean hasHour() {
+        return hour != HOUR_UNDEFINED;
+    }
+
+    int getHour() throws SerializationException {
+        if (error != null) {
+            throw new SerializationException(error);
+        }
+        if (hour == HOUR_UNDEFINED) {
+            throw new SerializationException("Unable to find forecast hour in settings: " + settings);
+        }
+        return hour;
+    }
+
+    /**
+     * Returns the minute within the forecast hour, configured by <code>minute=N</code>, or 0.
+     */
+    int getMinute() {
+        return minute;
+    }
+
+    /**
+     * Returns the index of the forecast slot of the given length in minutes, that the hour and minute
+     * of the channel fall into.
+     */
+    int getSlot(int resolution) throws SerializationException {
+        return (getHour()*60 + minute)/resolution;
+    }
+
+    private static JsonValueType parseType(String topic) {
+        String type = topic.substring(topic.lastIndexOf('/') + 1);
+        for (JsonValueType value : JsonValueType.values()) {
+            if (value.name().equalsIgnoreCase(type)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static int parseSetting(String settings, String key) {
+        if (settings == null) {
+            return HOUR_UNDEFINED;
+        }
+        for (String part : settings.split(";")) {
+            if (!part.contains(key)) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(part.substring(part.indexOf('=') + 1).trim());
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through and return an invalid value
+            }
+            return SETTING_INVALID;
+        }
+        return HOUR_UNDEFINED;
+    }
+
+    private static String parseTopic(String address) {
+        if (address == null) {
+            return "";
+        }
+        int end = address.indexOf(';');
+        return end < 0 ? address : address.substring(0, end);
+    }
+
+    private static String parseLoggingTopic(String loggingSettings) {
+        if (loggingSettings == null) {
+            return "";
+        }
+        for (String part : loggingSettings.split("[;:]")) {
+            if (part.contains("topic")) {
+                return part.substring(part.indexOf('=') + 1);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Bounded cache of channel descriptors, keyed by the raw address or logging settings and the
+     * channel settings. Lookups are lock-free and the cache is cleared entirely when full, as
+     * this will only happen after configurations were reloaded several times.
+     */
+    static class Cache {
+        private final Logger logger = LoggerFactory.getLogger(ChannelDescriptor.class);
+
+        static final int DEFAULT_CAPACITY = 4096;
+
+        private final ConcurrentMap<Key, ChannelDescriptor> descriptors = new ConcurrentHashMap<>();
+
+        private final int capacity;
+
+        Cache() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        Cache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        ChannelDescriptor get(LoggingRecord container) {
+            Key key = new Key(true, container.getLoggingSettings(), container.getChannelSettings());
+            ChannelDescriptor descriptor = descriptors.get(key);
+            if (descriptor == null) {
+                descriptor = put(key, new ChannelDescriptor(parseLoggingTopic(key.address), key.settings));
+            }
+            return descriptor;
+        }
+
+        ChannelDescriptor get(SerializationContainer container) {
+            Key key = new Key(false, container.getChannelAddress(), container.getChannelSettings());
+            ChannelDescriptor descriptor = descriptors.get(key);
+            if (descriptor == null) {
+                descriptor = put(key, new ChannelDescriptor(parseTopic(key.address), key.settings));
+            }
+            return descriptor;
+        }
+
+        private ChannelDescriptor put(Key key, ChannelDescriptor descriptor) {
+            if (descriptors.size() >= capacity) {
+                descriptors.clear();
+            }
+            ChannelDescriptor previous = descriptors.putIfAbsent(key, descriptor);
+            if (previous != null) {
+                return previous;
+            }
+            if (descriptor.error != null) {
+                logger.warn("Misconfigured channel of topic {}: {}", descriptor.topic, descriptor.error);
+            }
+            return descriptor;
+        }
+
+        int size() {
+            return descriptors.size();
+        }
+    }
+
+    private static final class Key {
+
+        private final boolean logging;
+        private final String address;
+        private final String settings;
+
+        private final int hash;
+
+        private Key(boolean logging, String address, String settings) {
+            this.logging = logging;
+            this.address = address;
+            this.settings = settings;
+            this.hash = 31*(31*Boolean.hashCode(logging) + Objects.hashCode(address)) + Objects.hashCode(settings);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return logging == other.logging && hash == other.hash &&
+                    Objects.equals(address, other.address) && Objects.equals(settings, other.settings);
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+
+/**
+ * A {@link NodeFormat} of series composed of their separately encoded values, which allows to
+ * cache the encoded values of a series with {@link #encodeSeriesValue(long, int, double)}.
+ */
+interface ComposableNodeFormat extends NodeFormat {
+
+    /**
+     * Encodes a single value of a series on its own, to later be composed into a series.
+     */
+    byte[] encodeSeriesValue(long timestamp, int offset, double value);
+
+    /**
+     * Composes a series of the first values of the array, encoded by {@link #encodeSeriesValue(long, int, double)}.
+     */
+    PayloadBuffer writeSeries(byte[][] values, int count);
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+import org.openmuc.framework.parser.spi.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assembles forecasts incrementally, as the records of single slots arrive, instead of serializing
+ * all slots of a forecast at once.
+ * <p>
+ * Every topic keeps one value per forecast slot of the day, in the resolution configured for the parser,
+ * holding the value for the next occurrence of the slot when it was updated. The hour and minute of a
+ * channel select its slot, so channels sharing a slot replace each other's value. Slots are dropped once
+ * the day of their occurrence has passed, so values are never republished for a later day. Payloads hold
+ * either the full series, or only the slots that changed since the last payload of the topic. If the parser
+ * composes series of separately encoded values, like JSON series are, the encoded value of every slot is
+ * cached, so a changed slot only re-encodes itself.
+ * <p>
+ * Topics are locked separately, so loggers of different topics never contend with each other.
+ */
+public class ForecastAssembler {
+    private final Logger logger = LoggerFactory.getLogger(ForecastAssembler.class);
+
+    private final NodeParser parser;
+
+    private final ConcurrentMap<String, Series> topics = new ConcurrentHashMap<>();
+
+    public ForecastAssembler(NodeParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Updates the forecast slot of the record with its value.
+     * 
+     * @return true if the value of the forecast slot changed
+     */
+    public boolean update(LoggingRecord container) throws SerializationException {
+        ChannelDescriptor channel = parser.getChannel(container);
+        if (!channel.isForecast()) {
+            throw new SerializationException("Unable to assemble forecast of topic: " + channel.getTopic());
+        }
+        SlotCalendar calendar = parser.getForecastSlots();
+        int slot = channel.getSlot(calendar.getResolution());
+        if (slot >= calendar.size()) {
+            throw new SerializationException("Unable to assemble forecast hour " + channel.getHour() + 
+                    " of topic: " + channel.getTopic());
+        }
+        JsonValueType type = channel.requireType();
+        
+        Record record = container.getRecord();
+        if (record == null || record.getFlag() != Flag.VALID) {
+            if (record != null && record.getFlag() != Flag.NO_VALUE_RECEIVED_YET) {
+                logger.warn("Unable to serialize record of flag \"{}\"", record.getFlag().toString());
+            }
+            return false;
+        }
+        double value = NodeParser.scaleValue(record.getValue(), type);
+        
+        SlotCalendar.Slots slots = calendar.now();
+        Series series = topics.computeIfAbsent(channel.getTopic(), topic -> new Series(type, slots.size()));
+        synchronized (series) {
+            return series.update(slot, value, slots);
+        }
+    }
+
+    /**
+     * Serializes all assembled slots of the topic.
+     */
+    public byte[] serialize(String topic) throws SerializationException {
+        return emit(topic, false);
+    }
+
+    /**
+     * Serializes only the slots of the topic that changed since its last payload.
+     */
+    public byte[] serializeChanges(String topic) throws SerializationException {
+        return emit(topic, true);
+    }
+
+    public Set<String> getTopics() {
+        return topics.keySet();
+    }
+
+    public void remove(String topic) {
+        topics.remove(topic);
+    }
+
+    private byte[] emit(String topic, boolean changes) throws SerializationException {
+        Series series = topics.get(topic);
+        if (series == null) {
+            throw new SerializationException("No forecast assembled for topic: " + topic);
+        }
+        long start = System.nanoTime();
+        byte[] bytes;
+        synchronized (series) {
+            series.expire(parser.getForecastSlots().now());
+            PayloadBuffer payload = series.write(changes ? series.changed : series.assigned);
+            bytes = payload.toByteArray();
+            series.changed.clear();
+        }
+        parser.getMetrics().recordSerialized(topic, series.type, bytes.length, System.nanoTime() - start);
+        return bytes;
+    }
+
+    private final class Series {
+
+        private final JsonValueType type;
+
+        private final int size;
+
+        private final double[] values;
+
+        /**
+         * Epoch timestamps and zone offsets of the occurrences the values of the slots were updated for.
+         */
+        private final long[] timestamps;
+        private final int[] offsets;
+
+        private final byte[][] encoded;
+
+        private final byte[][] composed;
+
+        /**
+         * The slots holding a value, and the slots changed since the last payload.
+         */
+        private final BitSet assigned;
+        private final BitSet changed;
+
+        private ZoneId zone;
+
+        private Series(JsonValueType type, int size) {
+            this.type = type;
+            this.size = size;
+            this.values = new double[size];
+            this.timestamps = new long[size];
+            this.offsets = new int[size];
+            this.encoded = new byte[size][];
+            this.composed = new byte[size][];
+            this.assigned = new BitSet(size);
+            this.changed = new BitSet(size);
+        }
+
+        private boolean update(int slot, double value, SlotCalendar.Slots slots) {
+            zone = slots.getZone();
+            long timestamp = slots.getEpochMilli(slot);
+            if (timestamp == SlotCalendar.NONE) {
+                return false;
+            }
+            if (assigned.get(slot) && timestamps[slot] == timestamp && 
+                    Double.doubleToLongBits(values[slot]) == Double.doubleToLongBits(value)) {
+                return false;
+            }
+            values[slot] = value;
+            timestamps[slot] = timestamp;
+            offsets[slot] = slots.getOffset(slot);
+            encoded[slot] = null;
+            assigned.set(slot);
+            changed.set(slot);
+            return true;
+        }
+
+        /**
+         * Drops the slots of occurrences on days before the current day.
+         */
+        private void expire(SlotCalendar.Slots slots) {
+            long dayStart = slots.getDayStart();
+            for (int slot = assigned.nextSetBit(0); slot >= 0; slot = assigned.nextSetBit(slot + 1)) {
+                if (timestamps[slot] < dayStart) {
+                    assigned.clear(slot);
+                    changed.clear(slot);
+                    encoded[slot] = null;
+                }
+            }
+        }
+
+        private PayloadBuffer write(BitSet slots) {
+            // Slots map onto the occurrences they were updated for, so the series starts with the earliest
+            // slot and usually wraps around the day
+            int first = slots.nextSetBit(0);
+            for (int slot = first; slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                if (timestamps[slot] < timestamps[first]) {
+                    first = slot;
+                }
+            }
+            first = Math.max(first, 0);
+            ComposableNodeFormat format = parser.getComposableFormat();
+            if (format != null) {
+                PayloadBuffer payload = compose(format, slots, first);
+                if (payload != null) {
+                    return payload;
+                }
+            }
+            JsonValueList list = new JsonValueList(slots.cardinality());
+            list.setZone(zone);
+            for (int i = 0; i < size; i++) {
+                int slot = (first + i) % size;
+                if (slots.get(slot)) {
+                    list.add(timestamps[slot], values[slot]);
+                }
+            }
+            list.sort();
+            return parser.writeSeries(list, type);
+        }
+
+        /**
+         * Composes the series of the cached encoded values, or returns null if the slots are not in order.
+         */
+        private PayloadBuffer compose(ComposableNodeFormat format, BitSet slots, int first) {
+            int count = 0;
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                int slot = (first + i) % size;
+                if (!slots.get(slot)) {
+                    continue;
+                }
+                long timestamp = timestamps[slot];
+                if (timestamp < previous) {
+                    return null;
+                }
+                previous = timestamp;
+                if (encoded[slot] == null) {
+                    encoded[slot] = format.encodeSeriesValue(timestamp, offsets[slot], values[slot]);
+                }
+                composed[count++] = encoded[slot];
+            }
+            return format.writeSeries(composed, count);
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Content-addressed cache of decoded forecast payloads, keyed by topic and payload bytes.
+ * <p>
+ * A single forecast message is mapped onto one channel per forecast hour, all of which receive
+ * the same payload. This cache lets every channel after the first one look up its hour in the
+ * already decoded series, instead of decoding the whole payload again. Malformed payloads are cached
+ * as well, so they are not decoded again for every channel only to fail the same way. Entries are evicted
+ * when they expire or when the cache exceeds its capacity. Cached series are sorted and must not be modified.
+ */
+class ForecastCache {
+
+    static final int DEFAULT_CAPACITY = 64;
+
+    static final long DEFAULT_EXPIRY = TimeUnit.MINUTES.toMillis(15);
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    private final long expiryNanos;
+
+    /**
+     * Source of the monotonic time in nanoseconds, the entries expire by.
+     */
+    private final LongSupplier ticker;
+
+    ForecastCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_EXPIRY);
+    }
+
+    ForecastCache(int capacity, long expiryMillis) {
+        this(capacity, expiryMillis, System::nanoTime);
+    }
+
+    ForecastCache(int capacity, long expiryMillis, LongSupplier ticker) {
+        this.capacity = capacity;
+        this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryMillis);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Returns the decoded series of a payload, or null if the payload is malformed.
+     */
+    JsonValueList get(String topic, byte[] payload, Decoder decoder) {
+        long now = ticker.getAsLong();
+        Key key = new Key(topic, payload);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (now - entry.created < expiryNanos) {
+                return entry.series;
+            }
+            entries.remove(key, entry);
+        }
+        JsonValueList series;
+        try {
+            series = decoder.decode(payload);
+            
+        } catch (JsonParseException e) {
+            series = null;
+        }
+        put(new Key(topic, payload.clone(), key.hash), new Entry(series, now));
+        return series;
+    }
+
+    private void put(Key key, Entry entry) {
+        if (entries.size() >= capacity) {
+            evict(entry.created);
+        }
+        entries.put(key, entry);
+    }
+
+    private void evict(long now) {
+        Map.Entry<Key, Entry> oldest = null;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (now - entry.getValue().created >= expiryNanos) {
+                iterator.remove();
+            }
+            else if (oldest == null || entry.getValue().created < oldest.getValue().created) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null && entries.size() >= capacity) {
+            entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    @FunctionalInterface
+    interface Decoder {
+
+        JsonValueList decode(byte[] payload) throws JsonParseException;
+
+    }
+
+    private static class Entry {
+
+        /** The decoded series, or null if the payload is malformed */
+        private final JsonValueList series;
+
+        private final long created;
+
+        private Entry(JsonValueList series, long created) {
+            this.series = series;
+            this.created = created;
+        }
+    }
+
+    private static final class Key {
+
+        private final String topic;
+        private final byte[] payload;
+
+        private final int hash;
+
+        private Key(String topic, byte[] payload) {
+            this(topic, payload, 31*topic.hashCode() + Arrays.hashCode(payload));
+        }
+
+        private Key(String topic, byte[] payload, int hash) {
+            this.topic = topic;
+            this.payload = payload;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && topic.equals(other.topic) && Arrays.equals(payload, other.payload);
+        }
+    }
+
+}
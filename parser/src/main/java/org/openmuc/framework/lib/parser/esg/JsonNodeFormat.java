@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.nio.charset.StandardCharsets;
+
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueReader;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueWriter;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * The JSON text format of the <code>esg-node</code> parser.
+ */
+class JsonNodeFormat implements ComposableNodeFormat {
+
+    /**
+     * Writers are reused per thread, to encode payloads without allocating intermediate buffers.
+     * The buffer of a payload needs to stay valid after it was encoded, so writers that grew too
+     * large are only replaced when the thread encodes its next payload.
+     */
+    private static final ThreadLocal<JsonValueWriter> WRITERS = ThreadLocal.withInitial(JsonValueWriter::new);
+
+    private static final int WRITER_CAPACITY_LIMIT = 64*1024;
+
+    @Override
+    public String getName() {
+        return "JSON";
+    }
+
+    @Override
+    public PayloadBuffer writeValue(long timestamp, int offset, double value, JsonValueType type) {
+        JsonValueWriter writer = writer();
+        writer.writeValue(timestamp, offset, value, type);
+        return writer;
+    }
+
+    @Override
+    public PayloadBuffer writeSeries(JsonValueList series, JsonValueType type) {
+        // Forecast series are written without units, as the type is known by the topic
+        JsonValueWriter writer = writer();
+        series.write(writer);
+        return writer;
+    }
+
+    @Override
+    public byte[] encodeSeriesValue(long timestamp, int offset, double value) {
+        JsonValueWriter writer = writer();
+        writer.writeValue(timestamp, offset, value);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public PayloadBuffer writeSeries(byte[][] values, int count) {
+        JsonValueWriter writer = writer();
+        writer.beginArray();
+        for (int i = 0; i < count; i++) {
+            writer.writeEncoded(values[i]);
+        }
+        writer.endArray();
+        return writer;
+    }
+
+    @Override
+    public Record readValue(byte[] payload, JsonValueType type) throws JsonParseException {
+        JsonValueReader reader = new JsonValueReader(payload);
+        reader.readValue();
+        reader.end();
+        return new Record(new DoubleValue(reader.getValue() / type.getScaling()), reader.getEpochMilli(), Flag.VALID);
+    }
+
+    @Override
+    public Record decodeValue(byte[] payload, JsonValueType type) {
+        JsonValueReader reader = new JsonValueReader(payload);
+        if (!reader.tryReadValue() || !reader.tryEnd()) {
+            return null;
+        }
+        return new Record(new DoubleValue(reader.getValue() / type.getScaling()), reader.getEpochMilli(), Flag.VALID);
+    }
+
+    @Override
+    public JsonValueList readSeries(byte[] payload) throws JsonParseException {
+        JsonValueReader reader = new JsonValueReader(payload);
+        JsonValueList values = JsonValueList.read(reader);
+        reader.end();
+        values.sort();
+        return values;
+    }
+
+    @Override
+    public String toString(byte[] payload, int length) {
+        return new String(payload, 0, Math.min(length, payload.length), StandardCharsets.UTF_8);
+    }
+
+    private static JsonValueWriter writer() {
+        JsonValueWriter writer = WRITERS.get();
+        if (writer.capacity() > WRITER_CAPACITY_LIMIT) {
+            // Do not hold on to the buffers of exceptionally large payloads
+            writer = new JsonValueWriter();
+            WRITERS.set(writer);
+        }
+        writer.reset();
+        return writer;
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Encoding of the payloads exchanged by a {@link NodeParser}. Formats only encode and decode
+ * values, while the parser maps them onto channels. Formats are shared between threads.
+ * <p>
+ * Values are encoded into a buffer of the calling thread, which is valid until the thread encodes
+ * its next payload.
+ */
+interface NodeFormat {
+
+    String getName();
+
+    PayloadBuffer writeValue(long timestamp, int offset, double value, JsonValueType type);
+
+    PayloadBuffer writeSeries(JsonValueList series, JsonValueType type);
+
+    /**
+     * Reads a single value of a payload into a valid record, with the value divided by the scaling of the type.
+     */
+    Record readValue(byte[] payload, JsonValueType type) throws JsonParseException;
+
+    /**
+     * Decodes a single value like {@link #readValue(byte[], JsonValueType)}, but returns null instead
+     * of throwing an exception if the payload is malformed.
+     */
+    Record decodeValue(byte[] payload, JsonValueType type);
+
+    /**
+     * Reads a series of a payload into a new, sorted list.
+     */
+    JsonValueList readSeries(byte[] payload) throws JsonParseException;
+
+    /**
+     * Returns a printable representation of the leading bytes of a payload, to be logged.
+     */
+    String toString(byte[] payload, int length);
+
+}
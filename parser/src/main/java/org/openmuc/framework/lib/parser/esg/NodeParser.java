@@ -20,81 +20,280 @@
  */
 package org.openmuc.framework.lib.parser.esg;
 
-import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.openmuc.framework.data.DoubleValue;
 import org.openmuc.framework.data.Flag;
 import org.openmuc.framework.data.Record;
 import org.openmuc.framework.data.Value;
 import org.openmuc.framework.datalogger.spi.LoggingRecord;
-import org.openmuc.framework.lib.parser.esg.json.JsonValue;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.Aggregation;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryValueReader;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
 import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
-import org.openmuc.framework.lib.parser.esg.json.JsonValue.JsonValueAdapter;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+import org.openmuc.framework.lib.parser.esg.metrics.NodeParserMetrics;
 import org.openmuc.framework.parser.spi.ParserService;
 import org.openmuc.framework.parser.spi.SerializationContainer;
 import org.openmuc.framework.parser.spi.SerializationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
-import com.google.gson.reflect.TypeToken;
 
 /**
  * Easy Smart Grid Stimulus parser library for the OpenMUC framework.
+ * <p>
+ * The parser is shared between the driver and the datalogger. Its internal state, like the caches of
+ * channels, forecasts and payloads and its metrics, is thread-safe, so all methods may be called concurrently
+ * without any external synchronization. Values are encoded as JSON,
+ * while the {@link BinaryNodeParser} encodes the same values in a compact binary format.
+ * <p>
+ * Besides the arrays of the {@link ParserService}, payloads may be serialized directly into a
+ * {@link ByteBuffer} or {@link OutputStream} of the caller. Payloads are encoded into buffers
+ * reused by every thread, so this does not allocate any intermediate arrays.
+ * <p>
+ * With the payload memo of the {@link NodeParserOptions}, the last payload of every topic is kept
+ * and returned as is for unchanged values. Independent of the option, the <code>serializeIfChanged</code>
+ * methods return null for those, to let the caller skip publishing the same payload again.
  */
 public class NodeParser implements ParserService {
     private final Logger logger = LoggerFactory.getLogger(NodeParser.class);
 
-    private final Gson gson;
+    /**
+     * Number of leading bytes of malformed payloads to be logged.
+     */
+    private static final int LOGGED_PAYLOAD_LENGTH = 128;
+
+    private final ChannelDescriptor.Cache channels = new ChannelDescriptor.Cache();
+
+    private final ForecastCache forecasts = new ForecastCache();
+
+    private final PayloadMemo.Cache memos = new PayloadMemo.Cache();
+
+    private final TopicLogLimiter diagnostics = new TopicLogLimiter();
+
+    private final SlotCalendar slots;
+
+    /**
+     * Calendar of the slots of serialized forecasts, in the configured resolution.
+     */
+    private final SlotCalendar forecastSlots;
+
+    private final NodeFormat format;
+
+    private final ForecastCache.Decoder forecastDecoder;
+
+    private final NodeParserOptions options;
+
+    private final NodeParserMetrics metrics;
 
     public NodeParser() {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(JsonValue.class, new JsonValueAdapter());
-        gsonBuilder.disableHtmlEscaping();
-        //gsonBuilder.setPrettyPrinting();
-        gson = gsonBuilder.create();
+        this(new NodeParserMetrics());
+    }
+
+    public NodeParser(NodeParserMetrics metrics) {
+        this(NodeParserOptions.DEFAULT, metrics);
+    }
+
+    public NodeParser(NodeParserOptions options) {
+        this(options, new NodeParserMetrics());
+    }
+
+    public NodeParser(NodeParserOptions options, NodeParserMetrics metrics) {
+        this(new JsonNodeFormat(), options, metrics);
+    }
+
+    NodeParser(NodeFormat format, NodeParserOptions options, NodeParserMetrics metrics) {
+        this.format = format;
+        this.forecastDecoder = this::deserializeForecast;
+        this.options = options;
+        this.metrics = metrics;
+        this.slots = new SlotCalendar(options.getClock() != null ? options.getClock() : Clock.systemDefaultZone());
+        this.forecastSlots = options.getResolution() != slots.getResolution() ?
+                new SlotCalendar(slots.getClock(), options.getResolution()) : slots;
+    }
+
+    public NodeParserOptions getOptions() {
+        return options;
+    }
+
+    public NodeParserMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Forgets the last payloads of all topics, for example after reconnecting to the broker,
+     * so the next values will be serialized as changed.
+     */
+    public void resetPayloadMemo() {
+        memos.clear();
     }
 
     @Override
-    public synchronized byte[] serialize(List<LoggingRecord> containers) throws SerializationException {
-        if (containers.size() == 1) {
-            return serialize(containers.get(0));
-        }
-        if (containers.stream().map(c -> parseTopic(c)).distinct().count() > 1) {
-            logger.warn("Received multiple topics to parse at once: {}", containers.stream()
-            		.map(c -> parseTopic(c))
-            		.distinct()
-            		.collect(Collectors.joining(", ")));
-            throw new UnsupportedOperationException("Unable to parse several topics at once");
-        }
-        // Since all topics are the same, getting the topic of the first container is sufficient
-        String topic = parseTopic(containers.get(0));
-        LinkedList<String> topicPath = new LinkedList<String>(List.of(topic.split("/")));
-        if (topicPath.getLast().equals("forecast")) {
-            topicPath.removeLast();
-            topic = String.join("/", topicPath);
-        }
-        ZonedDateTime currentHourTimestamp = ZonedDateTime.now().truncatedTo(ChronoUnit.HOURS);
-        ZonedDateTime currentDayTimestamp = currentHourTimestamp.truncatedTo(ChronoUnit.DAYS);
+    public byte[] serialize(List<LoggingRecord> containers) throws SerializationException {
+        ChannelDescriptor channel = getChannel(containers);
+        if (!channel.isForecast() && containers.size() == 1) {
+            return serialize(containers.get(0).getRecord(), channel, false);
+        }
+        if (options.isPayloadMemo()) {
+            return serializeForecast(containers, channel, false);
+        }
+        return encodeForecast(containers, channel).toByteArray();
+    }
+
+    /**
+     * Serializes the records like {@link #serialize(List)}, but returns null if the encoded timestamps
+     * and values did not change since the last payload of the topic, which needs not be published again.
+     */
+    public byte[] serializeIfChanged(List<LoggingRecord> containers) throws SerializationException {
+        ChannelDescriptor channel = getChannel(containers);
+        if (!channel.isForecast() && containers.size() == 1) {
+            return serialize(containers.get(0).getRecord(), channel, true);
+        }
+        return serializeForecast(containers, channel, true);
+    }
+
+    /**
+     * Serializes the records like {@link #serialize(List)}, but writes the payload at the current
+     * position of the buffer instead of returning a new array. Nothing is written, if the payload
+     * exceeds the remaining space of the buffer.
+     * 
+     * @return the number of written bytes
+     * @throws BufferOverflowException if the payload exceeds the remaining space of the buffer
+     */
+    public int serialize(List<LoggingRecord> containers, ByteBuffer buffer) throws SerializationException {
+        PayloadBuffer payload = encode(containers);
+        payload.writeTo(buffer);
+        return payload.size();
+    }
+
+    /**
+     * Serializes the records like {@link #serialize(List)}, but writes the payload to the stream
+     * instead of returning a new array.
+     */
+    public void serialize(List<LoggingRecord> containers, OutputStream stream) throws SerializationException, IOException {
+        encode(containers).writeTo(stream);
+    }
+
+    /**
+     * Serializes a batch of records of several topics asynchronously, encoding every topic in parallel
+     * like {@link #serialize(List)} on the default executor. On Java 21 and later, these are virtual
+     * threads, otherwise the common {@link ForkJoinPool}.
+     * 
+     * @return the futures of the payloads by topic, in the order of their first records. Topics that
+     *         fail to serialize complete exceptionally with their {@link SerializationException}.
+     */
+    public Map<String, CompletableFuture<byte[]>> serializeAsync(List<LoggingRecord> containers) {
+        return serializeAsync(containers, BatchExecutor.getDefault());
+    }
+
+    /**
+     * Serializes a batch of records of several topics asynchronously, encoding every topic in parallel
+     * like {@link #serialize(List)} on the given executor.
+     */
+    public Map<String, CompletableFuture<byte[]>> serializeAsync(List<LoggingRecord> containers, Executor executor) {
+        Map<String, List<LoggingRecord>> topics = new LinkedHashMap<String, List<LoggingRecord>>();
+        for (LoggingRecord container : containers) {
+            topics.computeIfAbsent(channels.get(container).getTopic(), t -> new ArrayList<LoggingRecord>()).add(container);
+        }
+        Map<String, CompletableFuture<byte[]>> payloads = new LinkedHashMap<String, CompletableFuture<byte[]>>(2*topics.size());
+        for (Map.Entry<String, List<LoggingRecord>> topic : topics.entrySet()) {
+            List<LoggingRecord> records = topic.getValue();
+            CompletableFuture<byte[]> payload = new CompletableFuture<byte[]>();
+            if (topics.size() == 1) {
+                // A single topic gains nothing from being handed off and is encoded right away
+                serializeTo(records, payload);
+            }
+            else {
+                executor.execute(() -> serializeTo(records, payload));
+            }
+            payloads.put(topic.getKey(), payload);
+        }
+        return payloads;
+    }
+
+    private void serializeTo(List<LoggingRecord> containers, CompletableFuture<byte[]> payload) {
+        try {
+            payload.complete(serialize(containers));
+            
+        } catch (SerializationException | RuntimeException e) {
+            payload.completeExceptionally(e);
+        }
+    }
+
+    private PayloadBuffer encode(List<LoggingRecord> containers) throws SerializationException {
+        ChannelDescriptor channel = getChannel(containers);
+        if (!channel.isForecast() && containers.size() == 1) {
+            return encode(containers.get(0).getRecord(), channel);
+        }
+        return encodeForecast(containers, channel);
+    }
+
+    private PayloadBuffer encodeForecast(List<LoggingRecord> containers, ChannelDescriptor channel) throws SerializationException {
+        long start = System.nanoTime();
+        try {
+            JsonValueType type = channel.requireType();
+            PayloadBuffer payload = writeSeries(assembleForecast(containers, type), type);
+            metrics.recordSerialized(channel.getTopic(), type, payload.size(), System.nanoTime() - start);
+            return payload;
+            
+        } catch (SerializationException | RuntimeException e) {
+            metrics.recordSerializeFailed(channel.getTopic(), channel.getType(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private byte[] serializeForecast(List<LoggingRecord> containers, ChannelDescriptor channel, boolean changes)
+            throws SerializationException {
+        long start = System.nanoTime();
+        try {
+            JsonValueType type = channel.requireType();
+            JsonValueList values = assembleForecast(containers, type);
+            
+            PayloadMemo memo = memos.get(channel.getTopic());
+            if (memo != null && memo.matches(values)) {
+                metrics.recordUnchanged(channel.getTopic(), type, memo.getPayload().length, System.nanoTime() - start);
+                return changes ? null : memo.getPayload();
+            }
+            byte[] bytes = writeSeries(values, type).toByteArray();
+            memos.put(channel.getTopic(), new PayloadMemo(values, bytes));
+            metrics.recordSerialized(channel.getTopic(), type, bytes.length, System.nanoTime() - start);
+            return bytes;
+            
+        } catch (SerializationException | RuntimeException e) {
+            metrics.recordSerializeFailed(channel.getTopic(), channel.getType(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the records onto the timestamps of their forecast slots. Records sharing a slot are
+     * aggregated as configured, or kept as separate values, before the series is scaled.
+     */
+    private JsonValueList assembleForecast(List<LoggingRecord> containers, JsonValueType type) throws SerializationException {
+        SlotCalendar.Slots slots = forecastSlots.now();
+        int resolution = forecastSlots.getResolution();
         
-        JsonValueType type = parseType(topic);
+        Aggregation aggregation = options.getAggregation();
+        SlotAggregator aggregator = aggregation != Aggregation.NONE ? new SlotAggregator(aggregation, slots.size()) : null;
         
-        List<JsonValue> values = new LinkedList<JsonValue>();
+        JsonValueList values = new JsonValueList(aggregator != null ? slots.size() : containers.size());
+        values.setZone(slots.getZone());
         for (LoggingRecord container : containers) {
             Record record = container.getRecord();
             if (record.getFlag() != Flag.VALID) {
@@ -103,138 +302,453 @@ public class NodeParser implements ParserService {
             	}
                 continue;
             }
-            try {
-                int hour = parseHour(container.getChannelSettings());
-                
-                ZonedDateTime timestamp = currentDayTimestamp.plusHours(hour);
-                if (timestamp.isBefore(currentHourTimestamp)) {
-                    timestamp = timestamp.plusDays(1);
+            ChannelDescriptor containerChannel = channels.get(container);
+            if (containerChannel.getError() != null) {
+                logger.warn("Skipping misconfigured forecast channel: {}", containerChannel.getError());
+                continue;
+            }
+            if (!containerChannel.hasHour()) {
+                logger.warn("Unable to find forecast hour in settings: {}", containerChannel.getSettings());
+                continue;
+            }
+            int slot = containerChannel.getSlot(resolution);
+            long timestamp = slots.getEpochMilli(slot);
+            if (timestamp == SlotCalendar.NONE) {
+                logger.debug("Skipping forecast hour {} not existing on this day", containerChannel.getHour());
+                continue;
+            }
+            if (aggregator != null) {
+                aggregator.add(slot, containerChannel.getHour()*60 + containerChannel.getMinute(), 
+                        toDouble(record.getValue()));
+            }
+            else {
+                values.add(timestamp, toDouble(record.getValue()));
+            }
+        }
+        if (aggregator != null) {
+            aggregator.write(slots, values);
+        }
+        values.scale(type.getScaling());
+        values.sort();
+        return values;
+    }
+
+    /**
+     * Writes a sorted series in the configured series encoding.
+     */
+    PayloadBuffer writeSeries(JsonValueList values, JsonValueType type) {
+        if (options.getSeriesEncoding() == SeriesEncoding.DELTA) {
+            return BinaryNodeFormat.writeDeltaSeries(values, type, options.isSeriesCompression());
+        }
+        return format.writeSeries(values, type);
+    }
+
+    /**
+     * Returns the format of the parser if series are written in it, composed of their separately
+     * encoded values, or null otherwise.
+     */
+    ComposableNodeFormat getComposableFormat() {
+        if (options.getSeriesEncoding() != SeriesEncoding.FULL || !(format instanceof ComposableNodeFormat)) {
+            return null;
+        }
+        return (ComposableNodeFormat) format;
+    }
+
+    SlotCalendar getSlots() {
+        return slots;
+    }
+
+    SlotCalendar getForecastSlots() {
+        return forecastSlots;
+    }
+
+    ChannelDescriptor getChannel(LoggingRecord container) {
+        return channels.get(container);
+    }
+
+    /**
+     * Returns the descriptor of a batch of records, which need to be of the same topic.
+     * Batches of several topics may be serialized with {@link #serializeAsync(List)}.
+     */
+    private ChannelDescriptor getChannel(List<LoggingRecord> containers) {
+        // Since all topics need to be the same, the descriptor of the first container is sufficient
+        ChannelDescriptor channel = channels.get(containers.get(0));
+        for (LoggingRecord container : containers) {
+            if (!channel.getTopic().equals(channels.get(container).getTopic())) {
+                Set<String> topics = new LinkedHashSet<String>();
+                for (LoggingRecord c : containers) {
+                    topics.add(channels.get(c).getTopic());
                 }
-                values.add(new JsonValue(timestamp, scaleValue(record.getValue(), type), null));
-                
-            } catch(IllegalArgumentException e) {
-                logger.warn("Error parsing ValueType: {}" + e.getMessage());
+                logger.warn("Received multiple topics to parse at once: {}", String.join(", ", topics));
+                throw new UnsupportedOperationException("Unable to parse several topics at once");
             }
         }
-        values.sort(Comparator.comparing(v -> v.getTimestamp()));
-        
-        return gson.toJson(values).getBytes(StandardCharsets.UTF_8);
+        return channel;
     }
 
     @Override
-    public synchronized byte[] serialize(LoggingRecord container) throws SerializationException {
-        String topic = parseTopic(container);
-        return serialize(container.getRecord(), topic);
+    public byte[] serialize(LoggingRecord container) throws SerializationException {
+        return serialize(container.getRecord(), channels.get(container), false);
+    }
+
+    /**
+     * Serializes the record like {@link #serialize(LoggingRecord)}, but returns null if its timestamp
+     * and value did not change since the last payload of the topic.
+     */
+    public byte[] serializeIfChanged(LoggingRecord container) throws SerializationException {
+        return serialize(container.getRecord(), channels.get(container), true);
+    }
+
+    /**
+     * Serializes the record like {@link #serialize(LoggingRecord)}, but writes the payload at the
+     * current position of the buffer. Nothing is written, if the payload exceeds the remaining space.
+     * 
+     * @return the number of written bytes
+     * @throws BufferOverflowException if the payload exceeds the remaining space of the buffer
+     */
+    public int serialize(LoggingRecord container, ByteBuffer buffer) throws SerializationException {
+        PayloadBuffer payload = encode(container.getRecord(), channels.get(container));
+        payload.writeTo(buffer);
+        return payload.size();
+    }
+
+    public void serialize(LoggingRecord container, OutputStream stream) throws SerializationException, IOException {
+        encode(container.getRecord(), channels.get(container)).writeTo(stream);
     }
 
     @Override
-    public synchronized byte[] serialize(Record record, SerializationContainer container) throws SerializationException {
-        return serialize(record, container.getChannelAddress());
+    public byte[] serialize(Record record, SerializationContainer container) throws SerializationException {
+        return serialize(record, channels.get(container), false);
     }
 
-    private byte[] serialize(Record record, String topic) throws SerializationException {
-        if (record.getFlag() != Flag.VALID) {
-            throw new SerializationException(String.format("Unable to serialize record of flag \"%s\"", record.getFlag().toString()));
+    /**
+     * Serializes the record like {@link #serialize(Record, SerializationContainer)}, but returns null if
+     * its timestamp and value did not change since the last payload of the topic.
+     */
+    public byte[] serializeIfChanged(Record record, SerializationContainer container) throws SerializationException {
+        return serialize(record, channels.get(container), true);
+    }
+
+    /**
+     * Serializes the record like {@link #serialize(Record, SerializationContainer)}, but writes the payload
+     * at the current position of the buffer. Nothing is written, if the payload exceeds the remaining space.
+     * 
+     * @return the number of written bytes
+     * @throws BufferOverflowException if the payload exceeds the remaining space of the buffer
+     */
+    public int serialize(Record record, SerializationContainer container, ByteBuffer buffer) throws SerializationException {
+        PayloadBuffer payload = encode(record, channels.get(container));
+        payload.writeTo(buffer);
+        return payload.size();
+    }
+
+    public void serialize(Record record, SerializationContainer container, OutputStream stream) throws SerializationException, IOException {
+        encode(record, channels.get(container)).writeTo(stream);
+    }
+
+    private PayloadBuffer encode(Record record, ChannelDescriptor channel) throws SerializationException {
+        long start = System.nanoTime();
+        try {
+            JsonValueType type = requireValue(record, channel);
+            PayloadBuffer payload = format.writeValue(record.getTimestamp(), 0, scaleValue(record.getValue(), type), type);
+            metrics.recordSerialized(channel.getTopic(), type, payload.size(), System.nanoTime() - start);
+            return payload;
+            
+        } catch (SerializationException | RuntimeException e) {
+            metrics.recordSerializeFailed(channel.getTopic(), channel.getType(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Serializes a single value, looking up the last payload of the topic first if the memo is enabled
+     * or only changes are requested. Unchanged values return the last payload, or null for changes.
+     */
+    private byte[] serialize(Record record, ChannelDescriptor channel, boolean changes) throws SerializationException {
+        if (!changes && !options.isPayloadMemo()) {
+            return encode(record, channel).toByteArray();
         }
-        ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(record.getTimestamp()), ZoneId.of("UTC"));
+        long start = System.nanoTime();
         try {
-            JsonValueType type = parseType(topic);
-            JsonValue value = new JsonValue(timestamp, scaleValue(record.getValue(), type), type.getUnit());
+            JsonValueType type = requireValue(record, channel);
+            long timestamp = record.getTimestamp();
+            double value = scaleValue(record.getValue(), type);
             
-            return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+            PayloadMemo memo = memos.get(channel.getTopic());
+            if (memo != null && memo.matches(timestamp, value)) {
+                metrics.recordUnchanged(channel.getTopic(), type, memo.getPayload().length, System.nanoTime() - start);
+                return changes ? null : memo.getPayload();
+            }
+            byte[] bytes = format.writeValue(timestamp, 0, value, type).toByteArray();
+            memos.put(channel.getTopic(), new PayloadMemo(timestamp, value, bytes));
+            metrics.recordSerialized(channel.getTopic(), type, bytes.length, System.nanoTime() - start);
+            return bytes;
             
-        } catch(IllegalArgumentException e) {
-            throw new SerializationException("Error parsing ValueType: " + e.getMessage());
+        } catch (SerializationException | RuntimeException e) {
+            metrics.recordSerializeFailed(channel.getTopic(), channel.getType(), System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private static JsonValueType requireValue(Record record, ChannelDescriptor channel) throws SerializationException {
+        if (record.getFlag() != Flag.VALID) {
+            throw new SerializationException("Unable to serialize record of flag \"" + record.getFlag() + "\"");
         }
+        if (channel.isForecast()) {
+            throw new SerializationException("Unable to serialize single value for forecast topic: " + channel.getTopic());
+        }
+        return channel.requireType();
     }
 
     @Override
-    public synchronized Record deserialize(byte[] byteArray, SerializationContainer container) {
-        try {
-            JsonValue jsonValue;
-            
-            String topic = parseTopic(container.getChannelAddress());
-            LinkedList<String> topicPath = new LinkedList<String>(List.of(topic.split("/")));
-            if (!topicPath.getLast().equals("forecast")) {
-                jsonValue = gson.fromJson(new String(byteArray), JsonValue.class);
+    public Record deserialize(byte[] byteArray, SerializationContainer container) {
+        long start = System.nanoTime();
+        ChannelDescriptor channel = channels.get(container);
+        Record record = deserialize(byteArray, channel);
+        metrics.recordDeserialized(channel.getTopic(), channel.getType(), byteArray.length, System.nanoTime() - start,
+                record.getFlag());
+        return record;
+    }
+
+    /**
+     * Deserializes all values of a payload at once, at their original timestamps, instead of a single
+     * forecast hour at the current time like {@link #deserialize(byte[], SerializationContainer)}.
+     * The payload is decoded only once, regardless of the hour settings of the container.
+     * 
+     * @return the series of all values, or an empty series with the flag of the failure
+     */
+    public RecordSeries deserializeSeries(byte[] byteArray, SerializationContainer container) {
+        long start = System.nanoTime();
+        ChannelDescriptor channel = channels.get(container);
+        RecordSeries series = deserializeSeries(byteArray, channel);
+        metrics.recordDeserialized(channel.getTopic(), channel.getType(), byteArray.length, System.nanoTime() - start,
+                series.getFlag());
+        return series;
+    }
+
+    private RecordSeries deserializeSeries(byte[] byteArray, ChannelDescriptor channel) {
+        JsonValueType type = channel.getType();
+        if (type == null) {
+            logFailure(channel.getTopic(), "Error parsing value type of topic: {}", channel.getTopic());
+            return new RecordSeries(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
+        }
+        if (!channel.isForecast()) {
+            Record record = format.decodeValue(byteArray, type);
+            if (record == null) {
+                logDecodingFailure(channel, byteArray);
+                return new RecordSeries(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
             }
-            else {
-                topicPath.removeLast();
-                topic = String.join("/", topicPath);
-                
-                int hour = parseHour(container.getChannelSettings());
-
-                ZonedDateTime currentTimestamp = ZonedDateTime.now();
-                ZonedDateTime targetTimestamp = currentTimestamp.truncatedTo(ChronoUnit.DAYS).plusHours(hour);
-                
-                Type listType = new TypeToken<ArrayList<JsonValue>>(){}.getType();
-                List<JsonValue> values = gson.fromJson(new String(byteArray), listType);
-                try {
-                    jsonValue = values.stream()
-                            .filter(v -> v.getTimestamp().isEqual(targetTimestamp))
-                            .findFirst().orElseThrow();
-                    jsonValue.setTimestamp(currentTimestamp);
-                    
-                } catch(NoSuchElementException e) {
-                    return new Record(Flag.DRIVER_ERROR_CHANNEL_TEMPORARILY_NOT_ACCESSIBLE);
+            JsonValueList values = new JsonValueList(1);
+            values.add(record.getTimestamp(), record.getValue().asDouble());
+            return new RecordSeries(values, 1);
+        }
+        JsonValueList series = decodeForecast(byteArray, channel);
+        if (series == null) {
+            return new RecordSeries(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
+        }
+        return new RecordSeries(series, type.getScaling());
+    }
+
+    /**
+     * Deserializes a payload for all channels subscribed to its topic, like the channels of every hour
+     * of a forecast. The payload is decoded only once per topic and the hours of all channels are
+     * resolved at one current time, so the returned records can not disagree about the current day.
+     * 
+     * @return one record per container, in the order of the containers
+     */
+    public List<Record> deserialize(byte[] byteArray, List<? extends SerializationContainer> containers) {
+        long timestamp = slots.millis();
+        SlotCalendar.Slots day = slots.at(timestamp);
+        List<Record> records = new ArrayList<Record>(containers.size());
+        String topic = null;
+        JsonValueList series = null;
+        Record value = null;
+        for (SerializationContainer container : containers) {
+            long start = System.nanoTime();
+            ChannelDescriptor channel = channels.get(container);
+            Record record = validate(channel);
+            if (record == null) {
+                if (!channel.getTopic().equals(topic)) {
+                    topic = channel.getTopic();
+                    series = channel.isForecast() ? decodeForecast(byteArray, channel) : null;
+                    value = channel.isForecast() ? null : decodeValue(byteArray, channel);
+                }
+                if (!channel.isForecast()) {
+                    record = value;
+                }
+                else if (series != null) {
+                    record = selectHour(series, day, channel, timestamp);
+                }
+                else {
+                    record = new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
                 }
             }
-            return deserialize(jsonValue, topic);
-            
-        } catch(JsonParseException | SerializationException e) {
-            logger.warn("Error decoding JSON string \"{}\": {}", new String(byteArray, StandardCharsets.UTF_8), e.getMessage());
+            metrics.recordDeserialized(channel.getTopic(), channel.getType(), byteArray.length, System.nanoTime() - start,
+                    record.getFlag());
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Decodes the payload of a channel, reporting any failure by the flag of the returned record.
+     * Failures are expected input and neither throw nor log more than the rate limit per topic allows.
+     */
+    private Record deserialize(byte[] byteArray, ChannelDescriptor channel) {
+        Record failure = validate(channel);
+        if (failure != null) {
+            return failure;
+        }
+        if (!channel.isForecast()) {
+            return decodeValue(byteArray, channel);
+        }
+        JsonValueList series = decodeForecast(byteArray, channel);
+        if (series == null) {
+            return new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
+        }
+        long timestamp = slots.millis();
+        return selectHour(series, slots.at(timestamp), channel, timestamp);
+    }
+
+    /**
+     * Returns the failure of a channel that can not be deserialized into, or null if it is valid.
+     */
+    private Record validate(ChannelDescriptor channel) {
+        if (channel.getType() == null) {
+            logFailure(channel.getTopic(), "Error parsing value type of topic: {}", channel.getTopic());
+            return new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
+        }
+        if (channel.getError() != null) {
+            logFailure(channel.getTopic(), "Unable to deserialize misconfigured channel: {}", channel.getError());
+            return new Record(Flag.DRIVER_ERROR_CHANNEL_ADDRESS_SYNTAX_INVALID);
+        }
+        if (channel.isForecast() && !channel.hasHour()) {
+            logFailure(channel.getTopic(), "Unable to find forecast hour in settings: {}", channel.getSettings());
             return new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
         }
+        return null;
     }
 
-    private synchronized Record deserialize(JsonValue jsonValue, String topic) {
-        Long timestamp = jsonValue.getTimestamp().toInstant().toEpochMilli();
-        Value value = jsonValue.getValue();
+    private Record decodeValue(byte[] byteArray, ChannelDescriptor channel) {
+        Record record = format.decodeValue(byteArray, channel.getType());
+        if (record == null) {
+            logDecodingFailure(channel, byteArray);
+            return new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
+        }
+        return record;
+    }
+
+    /**
+     * Returns the cached series of a forecast payload, or null if it is malformed.
+     */
+    private JsonValueList decodeForecast(byte[] byteArray, ChannelDescriptor channel) {
+        JsonValueList series = forecasts.get(channel.getTopic(), byteArray, forecastDecoder);
+        if (series == null) {
+            logDecodingFailure(channel, byteArray);
+        }
+        return series;
+    }
+
+    /**
+     * Selects the value of the forecast hour and minute of a channel on the current day, at the current time.
+     */
+    private static Record selectHour(JsonValueList series, SlotCalendar.Slots day, ChannelDescriptor channel,
+            long timestamp) {
+        long targetTimestamp;
         try {
-            value = new DoubleValue(value.asDouble() / parseType(topic).getScaling());
-                
-        } catch(IllegalArgumentException e) {
-            logger.warn("Error parsing value type: {}", e.getMessage());
+            targetTimestamp = day.getDayEpochMilli(channel.getHour());
+            if (targetTimestamp != SlotCalendar.NONE) {
+                targetTimestamp += channel.getMinute()*60000L;
+            }
+            
+        } catch (SerializationException e) {
             return new Record(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED);
         }
+        int index = targetTimestamp != SlotCalendar.NONE ? series.indexOf(targetTimestamp) : -1;
+        if (index < 0) {
+            return new Record(Flag.DRIVER_ERROR_CHANNEL_TEMPORARILY_NOT_ACCESSIBLE);
+        }
+        Value value = new DoubleValue(series.getValue(index) / channel.getType().getScaling());
         return new Record(value, timestamp, Flag.VALID);
     }
 
-    private static Value scaleValue(Value value, JsonValueType type) throws SerializationException {
-        switch (value.getValueType()) {
-        case SHORT:
-        case INTEGER:
-        case LONG:
-        case FLOAT:
-        case DOUBLE:
-            return new DoubleValue(value.asDouble() * type.getScaling());
-        default:
-            throw new SerializationException("Unsupported ValueType: " + value.getValueType());
+    private void logFailure(String topic, String message, Object argument) {
+        long suppressed = diagnostics.acquire(topic);
+        if (suppressed < 0) {
+            metrics.recordLogSuppressed();
+            return;
+        }
+        if (suppressed > 0) {
+            logger.warn(message + " ({} similar messages suppressed)", argument, suppressed);
+        }
+        else {
+            logger.warn(message, argument);
         }
     }
 
-    private static JsonValueType parseType(String topic) throws IllegalArgumentException {
-        String type = new LinkedList<String>(List.of(parseTopic(topic).split("/"))).getLast();
-        return JsonValueType.valueOf(type.toUpperCase());
+    /**
+     * Logs the failure to decode a payload, if the rate limit of the topic allows. Only then the payload
+     * is decoded again, to describe why it is malformed.
+     */
+    private void logDecodingFailure(ChannelDescriptor channel, byte[] payload) {
+        String topic = channel.getTopic();
+        long suppressed = diagnostics.acquire(topic);
+        if (suppressed < 0) {
+            metrics.recordLogSuppressed();
+            return;
+        }
+        String error;
+        try {
+            if (channel.isForecast()) {
+                deserializeForecast(payload);
+            }
+            else {
+                format.readValue(payload, channel.getType());
+            }
+            error = "Unknown error";
+            
+        } catch (JsonParseException e) {
+            error = e.getMessage();
+        }
+        String excerpt = format.toString(payload, LOGGED_PAYLOAD_LENGTH);
+        if (payload.length > LOGGED_PAYLOAD_LENGTH) {
+            excerpt += "... (" + payload.length + " bytes)";
+        }
+        if (suppressed > 0) {
+            logger.warn("Error decoding {} payload \"{}\" of topic {}: {} ({} similar messages suppressed)",
+                    format.getName(), excerpt, topic, error, suppressed);
+        }
+        else {
+            logger.warn("Error decoding {} payload \"{}\" of topic {}: {}", format.getName(), excerpt, topic, error);
+        }
     }
 
-    private static String parseTopic(LoggingRecord container) {
-        return Arrays.stream(container.getLoggingSettings().split("[;:]"))
-                .filter(part -> part.contains("topic"))
-                .map(queue -> queue.split("=")[1])
-                .findFirst()
-                .orElse("");
+    /**
+     * Decodes a forecast series in the format of the parser, or in any binary encoding, as forecasts
+     * may be configured to be delta encoded.
+     */
+    private JsonValueList deserializeForecast(byte[] byteArray) throws JsonParseException {
+        if (BinaryValueReader.isBinary(byteArray)) {
+            return BinaryNodeFormat.readBinarySeries(byteArray);
+        }
+        return format.readSeries(byteArray);
     }
 
-    private static String parseTopic(String topic) {
-        return Stream.of(topic.split(";")).findFirst().orElse("");
+    static double scaleValue(Value value, JsonValueType type) throws SerializationException {
+        return toDouble(value) * type.getScaling();
     }
 
-    private static int parseHour(String settings) throws SerializationException {
-         return Stream.of(settings.split(";"))
-                .filter(part -> part.contains("hour"))
-                .mapToInt(keyVal -> Integer.parseInt(keyVal.split("=")[1]))
-                .findFirst().orElseThrow(() -> new SerializationException("Unable to find forecast hour in settings: " + settings));
+    private static double toDouble(Value value) throws SerializationException {
+        switch (value.getValueType()) {
+        case SHORT:
+        case INTEGER:
+        case LONG:
+        case FLOAT:
+        case DOUBLE:
+            return value.asDouble();
+        default:
+            throw new SerializationException("Unsupported ValueType: " + value.getValueType());
+        }
     }
 
 }
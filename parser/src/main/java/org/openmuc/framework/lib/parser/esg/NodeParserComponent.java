@@ -20,33 +20,154 @@
  */
 package org.openmuc.framework.lib.parser.esg;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.Hashtable;
+import java.util.List;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.Aggregation;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.metrics.NodeParserMetrics;
 import org.openmuc.framework.parser.spi.ParserService;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @Component
 public class NodeParserComponent {
+    private final Logger logger = LoggerFactory.getLogger(NodeParserComponent.class);
+
+    private static final String PARSER_ID = "esg-node";
+
+    private static final String BINARY_PARSER_ID = "esg-node-binary";
+
+    /**
+     * System property to additionally expose the parser metrics over JMX.
+     */
+    static final String JMX_PROPERTY = "org.openmuc.framework.lib.parser.esg.jmx";
+
+    /**
+     * System property to select the {@link SeriesEncoding} of forecasts, <code>full</code> or <code>delta</code>.
+     */
+    static final String SERIES_ENCODING_PROPERTY = "org.openmuc.framework.lib.parser.esg.series.encoding";
+
+    /**
+     * System property to deflate delta encoded forecasts.
+     */
+    static final String SERIES_COMPRESSION_PROPERTY = "org.openmuc.framework.lib.parser.esg.series.compression";
 
-    private ServiceRegistration<?> registration;
+    /**
+     * System property to keep the last payload of every topic, returned again for unchanged values.
+     */
+    static final String PAYLOAD_MEMO_PROPERTY = "org.openmuc.framework.lib.parser.esg.memo";
+
+    /**
+     * System property to select the {@link Aggregation} of forecast records sharing a slot, like <code>mean</code>.
+     */
+    static final String AGGREGATION_PROPERTY = "org.openmuc.framework.lib.parser.esg.forecast.aggregation";
+
+    /**
+     * System property to set the length of serialized forecast slots in minutes.
+     */
+    static final String RESOLUTION_PROPERTY = "org.openmuc.framework.lib.parser.esg.forecast.resolution";
+
+    private final List<ServiceRegistration<?>> registrations = new ArrayList<>();
+
+    private final List<ObjectName> metricsNames = new ArrayList<>();
 
     @Activate
     public void activate(BundleContext context) {
+        NodeParserOptions options = readOptions();
+        register(context, PARSER_ID, new NodeParser(options));
+        register(context, BINARY_PARSER_ID, new BinaryNodeParser(options));
+    }
+
+    private NodeParserOptions readOptions() {
+        NodeParserOptions options = NodeParserOptions.DEFAULT;
+        String encoding = System.getProperty(SERIES_ENCODING_PROPERTY);
+        if (encoding != null) {
+            try {
+                options = options.withSeriesEncoding(SeriesEncoding.valueOf(encoding.trim().toUpperCase()));
+                
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown series encoding \"{}\", using {}", encoding, options.getSeriesEncoding());
+            }
+        }
+        String aggregation = System.getProperty(AGGREGATION_PROPERTY);
+        if (aggregation != null) {
+            try {
+                options = options.withAggregation(Aggregation.valueOf(aggregation.trim().toUpperCase()));
+                
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown forecast aggregation \"{}\", using {}", aggregation, options.getAggregation());
+            }
+        }
+        String resolution = System.getProperty(RESOLUTION_PROPERTY);
+        if (resolution != null) {
+            try {
+                options = options.withResolution(Integer.parseInt(resolution.trim()));
+                
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid forecast resolution \"{}\", using {} minutes", resolution, options.getResolution());
+            }
+        }
+        return options.withSeriesCompression(Boolean.getBoolean(SERIES_COMPRESSION_PROPERTY))
+                .withPayloadMemo(Boolean.getBoolean(PAYLOAD_MEMO_PROPERTY));
+    }
+
+    @Deactivate
+    public void deactivate() {
+        for (ObjectName metricsName : metricsNames) {
+            unregisterMBean(metricsName);
+        }
+        metricsNames.clear();
+        for (ServiceRegistration<?> registration : registrations) {
+            registration.unregister();
+        }
+        registrations.clear();
+    }
+
+    private void register(BundleContext context, String parserId, NodeParser parser) {
         Dictionary<String, Object> properties = new Hashtable<>();
-        properties.put("parserID", "esg-node");
+        properties.put("parserID", parserId);
 
         String serviceName = ParserService.class.getName();
 
-        registration = context.registerService(serviceName, new NodeParser(), properties);
+        registrations.add(context.registerService(serviceName, parser, properties));
+        registrations.add(context.registerService(NodeParserMetrics.class.getName(), parser.getMetrics(), properties));
+
+        if (Boolean.getBoolean(JMX_PROPERTY)) {
+            registerMBean(parserId, parser.getMetrics());
+        }
     }
 
-    @Deactivate
-    public void deactivate() {
-        registration.unregister();
+    private void registerMBean(String parserId, NodeParserMetrics metrics) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName metricsName = new ObjectName("org.openmuc.framework.lib.parser.esg:type=NodeParserMetrics,name=" + parserId);
+            server.registerMBean(metrics, metricsName);
+            metricsNames.add(metricsName);
+            
+        } catch (JMException e) {
+            logger.warn("Unable to register parser metrics over JMX: {}", e.getMessage());
+        }
+    }
+
+    private void unregisterMBean(ObjectName metricsName) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            
+        } catch (JMException e) {
+            logger.warn("Unable to unregister parser metrics from JMX: {}", e.getMessage());
+        }
     }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.time.Clock;
+
+/**
+ * Options of a {@link NodeParser}. Options are immutable and every modification returns a copy.
+ */
+public final class NodeParserOptions {
+
+    /**
+     * Encoding of serialized forecast series.
+     */
+    public enum SeriesEncoding {
+
+        /**
+         * Series are written as array of values in the format of the parser.
+         */
+        FULL,
+
+        /**
+         * Series are written in the binary delta encoding, as start time, step and value differences,
+         * regardless of the format of the parser.
+         */
+        DELTA;
+
+    }
+
+    /**
+     * Aggregation of the forecast records, that fall into the same slot.
+     */
+    public enum Aggregation {
+
+        /**
+         * Every record is written as a value of its own, even if several share a slot.
+         */
+        NONE,
+
+        MEAN,
+
+        MIN,
+
+        MAX,
+
+        /**
+         * The record of the latest hour and minute in the slot is written.
+         */
+        LAST;
+
+    }
+
+    /**
+     * Default length of forecast slots in minutes.
+     */
+    public static final int DEFAULT_RESOLUTION = 60;
+
+    public static final NodeParserOptions DEFAULT = new NodeParserOptions(SeriesEncoding.FULL, false, false, null,
+            Aggregation.NONE, DEFAULT_RESOLUTION);
+
+    private final SeriesEncoding seriesEncoding;
+
+    private final boolean seriesCompression;
+
+    private final boolean payloadMemo;
+
+    private final Clock clock;
+
+    private final Aggregation aggregation;
+
+    private final int resolution;
+
+    private NodeParserOptions(SeriesEncoding seriesEncoding, boolean seriesCompression, boolean payloadMemo, Clock clock,
+            Aggregation aggregation, int resolution) {
+        this.seriesEncoding = seriesEncoding;
+        this.seriesCompression = seriesCompression;
+        this.payloadMemo = payloadMemo;
+        this.clock = clock;
+        this.aggregation = aggregation;
+        this.resolution = resolution;
+    }
+
+    public SeriesEncoding getSeriesEncoding() {
+        return seriesEncoding;
+    }
+
+    public NodeParserOptions withSeriesEncoding(SeriesEncoding seriesEncoding) {
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+    /**
+     * Returns true if delta encoded series will be deflated.
+     */
+    public boolean isSeriesCompression() {
+        return seriesCompression;
+    }
+
+    public NodeParserOptions withSeriesCompression(boolean seriesCompression) {
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+    /**
+     * Returns true if the last payload of every topic will be kept and returned again, instead of
+     * encoding unchanged values anew.
+     */
+    public boolean isPayloadMemo() {
+        return payloadMemo;
+    }
+
+    public NodeParserOptions withPayloadMemo(boolean payloadMemo) {
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+    /**
+     * Returns the clock that forecast slots are mapped onto, or null for the system clock in the
+     * default time zone at the creation of the parser.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    public NodeParserOptions withClock(Clock clock) {
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+    /**
+     * Returns how the forecast records of a slot are aggregated into a single value.
+     */
+    public Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    public NodeParserOptions withAggregation(Aggregation aggregation) {
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+    /**
+     * Returns the length of serialized forecast slots in minutes. Records are assigned to slots by
+     * their <code>hour=N</code> and optional <code>minute=N</code> settings.
+     */
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * @param resolution the length of forecast slots in minutes, which needs to divide a day
+     */
+    public NodeParserOptions withResolution(int resolution) {
+        if (resolution <= 0 || SlotCalendar.MINUTES_PER_DAY % resolution != 0) {
+            throw new IllegalArgumentException("Invalid slot resolution of " + resolution + " minutes");
+        }
+        return new NodeParserOptions(seriesEncoding, seriesCompression, payloadMemo, clock, aggregation, resolution);
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+/**
+ * Last serialized input of a topic together with its encoded payload. The input is fingerprinted
+ * by the timestamps and scaled values that were encoded, so records only differing in fields that
+ * are not serialized, or invalid records that were skipped, match as well.
+ */
+final class PayloadMemo {
+
+    private final long[] timestamps;
+    private final long[] values;
+
+    private final byte[] payload;
+
+    PayloadMemo(long timestamp, double value, byte[] payload) {
+        this.timestamps = new long[] { timestamp };
+        this.values = new long[] { Double.doubleToLongBits(value) };
+        this.payload = payload;
+    }
+
+    PayloadMemo(JsonValueList series, byte[] payload) {
+        int size = series.size();
+        this.timestamps = new long[size];
+        this.values = new long[size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = series.getTimestamp(i);
+            values[i] = Double.doubleToLongBits(series.getValue(i));
+        }
+        this.payload = payload;
+    }
+
+    boolean matches(long timestamp, double value) {
+        return timestamps.length == 1 && timestamps[0] == timestamp &&
+                values[0] == Double.doubleToLongBits(value);
+    }
+
+    boolean matches(JsonValueList series) {
+        int size = series.size();
+        if (timestamps.length != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (timestamps[i] != series.getTimestamp(i) ||
+                    values[i] != Double.doubleToLongBits(series.getValue(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the encoded payload, which is shared and must not be modified.
+     */
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * Last payloads per topic. The number of topics is bounded by clearing all memos once the
+     * capacity is reached, like the {@link ChannelDescriptor.Cache}.
+     */
+    static class Cache {
+
+        static final int DEFAULT_CAPACITY = 4096;
+
+        private final ConcurrentMap<String, PayloadMemo> memos = new ConcurrentHashMap<>();
+
+        private final int capacity;
+
+        Cache() {
+            this(DEFAULT_CAPACITY);
+        }
+
+        Cache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        PayloadMemo get(String topic) {
+            return memos.get(topic);
+        }
+
+        void put(String topic, PayloadMemo memo) {
+            if (memos.size() >= capacity && !memos.containsKey(topic)) {
+                memos.clear();
+            }
+            memos.put(topic, memo);
+        }
+
+        void remove(String topic) {
+            memos.remove(topic);
+        }
+
+        void clear() {
+            memos.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.parser.spi.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces bursts of records, so that only the latest record of every topic is serialized and
+ * handed to the consumer once per window, instead of encoding and publishing every update.
+ * <p>
+ * Every topic holds its latest record in an atomic slot, which offering threads replace without
+ * locking. Slots of topics without records for a whole window are removed. Windows are flushed on a
+ * fixed interval once {@link #start() started}, every time the given number of records was offered,
+ * or when {@link #flush() flushed} explicitly. Flushes never overlap, so a topic can not publish an
+ * older record after a newer one, and closing the coalescer flushes the final state of every topic.
+ * <p>
+ * Forecast hours are not coalesced, but assembled by the {@link ForecastAssembler}.
+ */
+public class RecordCoalescer implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(RecordCoalescer.class);
+
+    /**
+     * Marks slots removed by a flush, so no record is offered to a slot that is no longer mapped.
+     */
+    private static final LoggingRecord REMOVED = new LoggingRecord((String) null, null);
+
+    private final NodeParser parser;
+
+    private final BiConsumer<String, byte[]> consumer;
+
+    private final long interval;
+
+    private final int limit;
+
+    private final ConcurrentMap<String, AtomicReference<LoggingRecord>> slots = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> schedule;
+
+    /**
+     * @param interval the length of a window, or 0 to flush on the number of records only
+     * @param limit the number of offered records that flush a window early, or 0 to flush on the interval only.
+     *     If another flush is in progress when the limit is reached, the window is flushed by the next
+     *     offer reaching a multiple of the limit instead, so offers never wait for or retry the flush.
+     * @param consumer the consumer of the payloads by topic, called by the flushing thread
+     */
+    public RecordCoalescer(NodeParser parser, long interval, TimeUnit unit, int limit, BiConsumer<String, byte[]> consumer) {
+        if (interval < 0 || limit < 0) {
+            throw new IllegalArgumentException("Invalid coalescing interval or limit");
+        }
+        this.parser = parser;
+        this.interval = unit.toNanos(interval);
+        this.limit = limit;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Starts flushing on the interval, on a daemon thread of the coalescer.
+     */
+    public synchronized void start() {
+        if (schedule != null || interval == 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "esg-parser-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule = scheduler.scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Offers the record as latest state of its topic, replacing any record of the topic, that was not
+     * flushed yet. Records without a valid value are ignored.
+     * 
+     * @return true if the record will be flushed, unless replaced
+     */
+    public boolean offer(LoggingRecord container) throws SerializationException {
+        ChannelDescriptor channel = parser.getChannel(container);
+        if (channel.isForecast()) {
+            throw new SerializationException("Unable to coalesce forecast hours of topic: " + channel.getTopic());
+        }
+        channel.requireType();
+        
+        Record record = container.getRecord();
+        if (record == null || record.getFlag() != Flag.VALID) {
+            if (record != null && record.getFlag() != Flag.NO_VALUE_RECEIVED_YET) {
+                logger.warn("Unable to serialize record of flag \"{}\"", record.getFlag().toString());
+            }
+            return false;
+        }
+        String topic = channel.getTopic();
+        while (true) {
+            AtomicReference<LoggingRecord> slot = slots.get(topic);
+            if (slot == null) {
+                slot = slots.computeIfAbsent(topic, t -> new AtomicReference<LoggingRecord>());
+            }
+            LoggingRecord previous = slot.get();
+            if (previous == REMOVED) {
+                slots.remove(topic, slot);
+                continue;
+            }
+            if (slot.compareAndSet(previous, container)) {
+                if (previous != null) {
+                    coalesced.increment();
+                }
+                break;
+            }
+        }
+        // While another thread flushes, the record is left to the ongoing window or the next multiple of the limit
+        if (limit > 0 && pending.incrementAndGet() % limit == 0 && flushLock.tryLock()) {
+            try {
+                flushWindow();
+                
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Serializes the latest record of every topic offered since the last flush and hands the payloads
+     * to the consumer.
+     * 
+     * @return the number of flushed payloads
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushWindow();
+            
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushWindow() {
+        pending.set(0);
+        int count = 0;
+        for (Map.Entry<String, AtomicReference<LoggingRecord>> slot : slots.entrySet()) {
+            LoggingRecord container = slot.getValue().getAndSet(null);
+            if (container == null) {
+                // The topic had no record for a whole window
+                if (slot.getValue().compareAndSet(null, REMOVED)) {
+                    slots.remove(slot.getKey(), slot.getValue());
+                }
+                continue;
+            }
+            try {
+                consumer.accept(slot.getKey(), parser.serialize(container));
+                count++;
+                
+            } catch (SerializationException | RuntimeException e) {
+                logger.warn("Error flushing latest record of topic {}: {}", slot.getKey(), e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the topics that were offered records in the current or the last window.
+     */
+    public Set<String> getTopics() {
+        return slots.keySet();
+    }
+
+    /**
+     * Returns the number of records, that were replaced by a newer record of their topic before
+     * being flushed.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Stops flushing on the interval and flushes the final state of every topic.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (schedule != null) {
+                schedule.cancel(false);
+                scheduler.shutdown();
+                schedule = null;
+                scheduler = null;
+            }
+        }
+        flush();
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+/**
+ * All values of a payload, decoded in a single pass, at their original timestamps and in the units
+ * of the channel.
+ * <p>
+ * Values are accessible by index as primitives, or as {@link Record}s, which are only created when
+ * iterated. A series may share its values with the forecast cache of the parser and is read-only.
+ * Payloads that failed to be decoded result in an empty series with the flag of the failure.
+ */
+public final class RecordSeries implements Iterable<Record> {
+
+    private final JsonValueList values;
+
+    private final double scaling;
+
+    private final Flag flag;
+
+    RecordSeries(JsonValueList values, double scaling) {
+        this.values = values;
+        this.scaling = scaling;
+        this.flag = Flag.VALID;
+    }
+
+    RecordSeries(Flag flag) {
+        this.values = new JsonValueList(0);
+        this.scaling = 1;
+        this.flag = flag;
+    }
+
+    /**
+     * Returns {@link Flag#VALID} if the payload was decoded, or the flag of the failure otherwise.
+     */
+    public Flag getFlag() {
+        return flag;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Returns the epoch timestamp in milliseconds of the value at the index. Timestamps are sorted.
+     */
+    public long getTimestamp(int index) {
+        return values.getTimestamp(index);
+    }
+
+    public double getValue(int index) {
+        return values.getValue(index) / scaling;
+    }
+
+    /**
+     * Returns a copy of all values, in the units of the channel.
+     */
+    public double[] getValues() {
+        double[] target = new double[size()];
+        values.copyValues(target, 0, scaling);
+        return target;
+    }
+
+    /**
+     * Copies all values in the units of the channel into the target array, starting at the offset.
+     */
+    public void getValues(double[] target, int offset) {
+        values.copyValues(target, offset, scaling);
+    }
+
+    public Record get(int index) {
+        return new Record(new DoubleValue(getValue(index)), getTimestamp(index), Flag.VALID);
+    }
+
+    public List<Record> toRecords() {
+        List<Record> records = new ArrayList<Record>(size());
+        for (int i = 0; i < size(); i++) {
+            records.add(get(i));
+        }
+        return records;
+    }
+
+    @Override
+    public Iterator<Record> iterator() {
+        return new Iterator<Record>() {
+
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+}
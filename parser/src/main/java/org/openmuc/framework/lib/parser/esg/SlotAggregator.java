@@ -0,0 +1,128 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.Arrays;
+
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.Aggregation;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+/**
+ * Accumulates forecast values into one value per slot, as they are streamed from the records.
+ * <p>
+ * Accumulators are plain arrays indexed by slot, so values are neither sorted nor collected before
+ * being aggregated. The slots of a day are emitted from their earliest next occurrence on and wrap
+ * around the day, which already orders them by time.
+ */
+final class SlotAggregator {
+
+    private final Aggregation aggregation;
+
+    private double[] values;
+    private int[] counts;
+
+    /**
+     * Minute of the day of the last value of every slot, to aggregate the latest value.
+     */
+    private int[] minutes;
+
+    private int size = 0;
+
+    SlotAggregator(Aggregation aggregation, int capacity) {
+        this.aggregation = aggregation;
+        this.values = new double[capacity];
+        this.counts = new int[capacity];
+        if (aggregation == Aggregation.LAST) {
+            minutes = new int[capacity];
+        }
+    }
+
+    /**
+     * Adds the value of a record at the given minute of the day to its slot.
+     */
+    void add(int slot, int minute, double value) {
+        if (slot >= values.length) {
+            int capacity = Math.max(2*values.length, slot + 1);
+            values = Arrays.copyOf(values, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            if (minutes != null) {
+                minutes = Arrays.copyOf(minutes, capacity);
+            }
+        }
+        size = Math.max(size, slot + 1);
+        if (counts[slot]++ == 0) {
+            values[slot] = value;
+            if (minutes != null) {
+                minutes[slot] = minute;
+            }
+            return;
+        }
+        switch (aggregation) {
+        case MEAN:
+            values[slot] += value;
+            break;
+        case MIN:
+            values[slot] = Math.min(values[slot], value);
+            break;
+        case MAX:
+            values[slot] = Math.max(values[slot], value);
+            break;
+        case LAST:
+            if (minute >= minutes[slot]) {
+                values[slot] = value;
+                minutes[slot] = minute;
+            }
+            break;
+        default:
+            throw new IllegalStateException("Unable to aggregate values by " + aggregation);
+        }
+    }
+
+    /**
+     * Writes the aggregated value of every slot at its next occurrence. Slots beyond the day follow
+     * the slots of the day and may need to be sorted in between.
+     */
+    void write(SlotCalendar.Slots slots, JsonValueList list) {
+        int day = Math.min(size, slots.size());
+        int first = -1;
+        for (int slot = 0; slot < day; slot++) {
+            if (counts[slot] > 0 && (first < 0 || slots.getEpochMilli(slot) < slots.getEpochMilli(first))) {
+                first = slot;
+            }
+        }
+        for (int i = 0; i < day && first >= 0; i++) {
+            int slot = (first + i) % day;
+            if (counts[slot] > 0) {
+                list.add(slots.getEpochMilli(slot), getValue(slot));
+            }
+        }
+        for (int slot = day; slot < size; slot++) {
+            if (counts[slot] > 0) {
+                list.add(slots.getEpochMilli(slot), getValue(slot));
+            }
+        }
+    }
+
+    private double getValue(int slot) {
+        return aggregation == Aggregation.MEAN ? values[slot]/counts[slot] : values[slot];
+    }
+
+}
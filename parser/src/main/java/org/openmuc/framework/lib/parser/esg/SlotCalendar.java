@@ -0,0 +1,241 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Calendar of the forecast slots of a day, mapping slot indices like <code>hour=N</code> onto their
+ * timestamps with a plain array lookup.
+ * <p>
+ * The timestamps of all slots are precomputed once the clock passes a slot boundary and swapped in
+ * atomically, so lookups never lock. Slots are mapped onto the local time of the day, so on days
+ * with daylight saving transitions, <code>hour=3</code> still maps onto 03:00. Slots skipped by a
+ * transition do not exist on that day, while slots repeated by a transition map onto their first
+ * occurrence.
+ */
+final class SlotCalendar {
+
+    static final int MINUTES_PER_DAY = 24*60;
+
+    /**
+     * Timestamp of slots that do not exist on a day.
+     */
+    static final long NONE = Long.MIN_VALUE;
+
+    private final Clock clock;
+
+    private final int resolution;
+
+    private volatile Slots current;
+
+    SlotCalendar(Clock clock) {
+        this(clock, 60);
+    }
+
+    /**
+     * @param resolution the length of a slot in minutes, which needs to divide a day
+     */
+    SlotCalendar(Clock clock, int resolution) {
+        if (resolution <= 0 || MINUTES_PER_DAY % resolution != 0) {
+            throw new IllegalArgumentException("Invalid slot resolution of " + resolution + " minutes");
+        }
+        this.clock = clock;
+        this.resolution = resolution;
+    }
+
+    Clock getClock() {
+        return clock;
+    }
+
+    int getResolution() {
+        return resolution;
+    }
+
+    int size() {
+        return MINUTES_PER_DAY/resolution;
+    }
+
+    long millis() {
+        return clock.millis();
+    }
+
+    Slots now() {
+        return at(clock.millis());
+    }
+
+    /**
+     * Returns the slots at the epoch timestamp in milliseconds, usually the current time of the clock.
+     */
+    Slots at(long timestamp) {
+        Slots slots = current;
+        if (slots == null || !slots.contains(timestamp)) {
+            slots = new Slots(timestamp);
+            if (current == null || current.start < slots.start) {
+                current = slots;
+            }
+        }
+        return slots;
+    }
+
+    final class Slots {
+
+        private final ZoneId zone;
+
+        /**
+         * Boundaries of the current slot in epoch milliseconds, from inclusive to exclusive.
+         */
+        private final long start;
+        private final long end;
+
+        /**
+         * Start of the day and of the following day in epoch milliseconds.
+         */
+        private final long dayStart;
+        private final long nextDayStart;
+
+        private final long[] day;
+
+        private final long[] next;
+        private final int[] nextOffsets;
+
+        private Slots(long timestamp) {
+            zone = clock.getZone();
+            ZoneRules rules = zone.getRules();
+            LocalDate date = Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate();
+            
+            day = epochs(date, rules, SlotCalendar.this.size());
+            long[] tomorrow = epochs(date.plusDays(1), rules, SlotCalendar.this.size());
+            
+            dayStart = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            nextDayStart = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            long start = dayStart;
+            long end = nextDayStart;
+            for (long epoch : day) {
+                if (epoch == NONE) {
+                    continue;
+                }
+                if (epoch <= timestamp) {
+                    start = Math.max(start, epoch);
+                }
+                else {
+                    end = Math.min(end, epoch);
+                }
+            }
+            this.start = start;
+            this.end = end;
+            
+            next = new long[day.length];
+            nextOffsets = new int[day.length];
+            for (int slot = 0; slot < day.length; slot++) {
+                // Slots before the current one, or skipped today, map onto their next occurrence tomorrow
+                next[slot] = day[slot] != NONE && day[slot] >= start ? day[slot] : tomorrow[slot];
+                if (next[slot] != NONE) {
+                    nextOffsets[slot] = rules.getOffset(Instant.ofEpochMilli(next[slot])).getTotalSeconds();
+                }
+            }
+        }
+
+        private long[] epochs(LocalDate date, ZoneRules rules, int size) {
+            long[] epochs = new long[size];
+            for (int slot = 0; slot < size; slot++) {
+                LocalDateTime time = date.atTime(LocalTime.ofSecondOfDay(slot*resolution*60L));
+                List<ZoneOffset> offsets = rules.getValidOffsets(time);
+                epochs[slot] = offsets.isEmpty() ? NONE : time.toEpochSecond(offsets.get(0))*1000;
+            }
+            return epochs;
+        }
+
+        private boolean contains(long timestamp) {
+            return timestamp >= start && timestamp < end && zone.equals(clock.getZone());
+        }
+
+        ZoneId getZone() {
+            return zone;
+        }
+
+        /**
+         * Returns the epoch timestamp in milliseconds of the start of the current day.
+         */
+        long getDayStart() {
+            return dayStart;
+        }
+
+        /**
+         * Returns the number of slots of a day.
+         */
+        int size() {
+            return day.length;
+        }
+
+        /**
+         * Returns the epoch timestamp in milliseconds of the next occurrence of the slot, starting with
+         * the current slot, or {@link #NONE} if the slot does not exist on either day.
+         */
+        long getEpochMilli(int slot) {
+            if (slot < 0 || slot >= next.length) {
+                return getEpochMilli(slot, true);
+            }
+            return next[slot];
+        }
+
+        /**
+         * Returns the offset of the zone in seconds at the next occurrence of the slot.
+         */
+        int getOffset(int slot) {
+            if (slot < 0 || slot >= next.length) {
+                return zone.getRules().getOffset(Instant.ofEpochMilli(getEpochMilli(slot))).getTotalSeconds();
+            }
+            return nextOffsets[slot];
+        }
+
+        /**
+         * Returns the epoch timestamp in milliseconds of the slot on the current day, or {@link #NONE}
+         * if the slot does not exist on this day.
+         */
+        long getDayEpochMilli(int slot) {
+            if (slot < 0 || slot >= day.length) {
+                return getEpochMilli(slot, false);
+            }
+            return day[slot];
+        }
+
+        /**
+         * Maps slots beyond the day onto the following days, as elapsed time since the start of the day.
+         */
+        private long getEpochMilli(int slot, boolean next) {
+            long elapsed = (long) slot*resolution*60000;
+            if (next && dayStart + elapsed < start) {
+                return nextDayStart + elapsed;
+            }
+            return dayStart + elapsed;
+        }
+    }
+
+}
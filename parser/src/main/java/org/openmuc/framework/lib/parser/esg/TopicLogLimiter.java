@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the diagnostics logged per topic, so a flood of malformed payloads on a single topic neither
+ * fills the logs nor spends noticeable time on logging.
+ * <p>
+ * Within every interval, the first messages of a topic are logged, and after them only a sample of
+ * every n-th message. Logged messages report how many were suppressed since the previous one.
+ * The number of tracked topics is bounded, further topics share a single limit.
+ */
+final class TopicLogLimiter {
+
+    static final long DEFAULT_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+
+    static final int DEFAULT_BURST = 3;
+
+    static final int DEFAULT_SAMPLING = 1000;
+
+    static final int MAX_TOPICS = 1024;
+
+    private static final String OTHER_TOPICS = "*";
+
+    private final ConcurrentMap<String, Limit> topics = new ConcurrentHashMap<>();
+
+    private final long interval;
+    private final int burst;
+    private final int sampling;
+
+    TopicLogLimiter() {
+        this(DEFAULT_INTERVAL, DEFAULT_BURST, DEFAULT_SAMPLING);
+    }
+
+    TopicLogLimiter(long interval, int burst, int sampling) {
+        this.interval = interval;
+        this.burst = burst;
+        this.sampling = sampling;
+    }
+
+    /**
+     * Acquires a message of the topic to be logged.
+     * 
+     * @return the number of messages suppressed since the last logged one, or -1 if this message
+     *         should be suppressed as well
+     */
+    long acquire(String topic) {
+        Limit limit = topics.get(topic);
+        if (limit == null) {
+            if (topics.size() >= MAX_TOPICS) {
+                topic = OTHER_TOPICS;
+            }
+            limit = topics.computeIfAbsent(topic, t -> new Limit());
+        }
+        return limit.acquire(System.nanoTime());
+    }
+
+    private final class Limit {
+
+        private long start = Long.MIN_VALUE;
+        private long count;
+        private long suppressed;
+
+        private synchronized long acquire(long now) {
+            if (start == Long.MIN_VALUE || now - start >= interval) {
+                start = now;
+                count = 0;
+            }
+            if (count++ < burst || (count - burst) % sampling == 0) {
+                long result = suppressed;
+                suppressed = 0;
+                return result;
+            }
+            suppressed++;
+            return -1;
+        }
+    }
+
+}
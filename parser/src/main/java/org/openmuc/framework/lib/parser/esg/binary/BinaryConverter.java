@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.binary;
+
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueReader;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueWriter;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Converts payloads between the JSON and the binary encoding of values.
+ * <p>
+ * Single values convert without loss. Series keep their timestamps and values exactly, but the
+ * binary encoding carries the offset of the first value only, which all values of a converted
+ * series will be written with. Like the JSON series of the parser, converted series are written without
+ * units. Units are restricted to the ones of the {@link JsonValueType}s.
+ */
+public final class BinaryConverter {
+
+    private BinaryConverter() {
+    }
+
+    public static byte[] toBinary(byte[] json) throws JsonParseException {
+        JsonValueReader reader = new JsonValueReader(json);
+        BinaryValueWriter writer = new BinaryValueWriter(json.length);
+        if (reader.isArray()) {
+            JsonValueList series = JsonValueList.read(reader);
+            reader.end();
+            writer.writeSeries(series, toType(series.getUnit()));
+        }
+        else {
+            reader.readValue();
+            reader.end();
+            writer.writeValue(reader.getEpochMilli(), reader.getOffset(), reader.getValue(), toType(reader.getUnit()));
+        }
+        return writer.toByteArray();
+    }
+
+    public static byte[] toJson(byte[] binary) throws JsonParseException {
+        BinaryValueReader reader = new BinaryValueReader(binary);
+        JsonValueWriter writer = new JsonValueWriter();
+        if (reader.isSeries()) {
+            JsonValueList series = reader.readSeries();
+            reader.end();
+            series.write(writer);
+        }
+        else {
+            reader.readValue();
+            reader.end();
+            writer.writeValue(reader.getEpochMilli(), reader.getOffset(), reader.getValue(), reader.getType());
+        }
+        return writer.toByteArray();
+    }
+
+    private static JsonValueType toType(String unit) throws JsonParseException {
+        if (unit == null || unit.isEmpty()) {
+            return null;
+        }
+        JsonValueType type = JsonValueType.forUnit(unit);
+        if (type == null) {
+            throw new JsonParseException("Unable to encode value of unknown unit \"" + unit + "\"");
+        }
+        return type;
+    }
+
+}
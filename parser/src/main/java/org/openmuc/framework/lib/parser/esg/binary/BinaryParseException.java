@@ -0,0 +1,66 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.binary;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Thrown for malformed binary payloads.
+ */
+public class BinaryParseException extends JsonParseException {
+
+    private static final long serialVersionUID = -3815386390624528247L;
+
+    private final int position;
+
+    private final String reason;
+
+    public BinaryParseException(String message) {
+        this(-1, message);
+    }
+
+    public BinaryParseException(int position, String reason) {
+        super((String) null);
+        this.position = position;
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the position in the payload the error was detected at, or -1 if unknown.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String getMessage() {
+        if (position < 0) {
+            return reason;
+        }
+        return "Received malformed binary payload at position " + position + ": " + reason;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
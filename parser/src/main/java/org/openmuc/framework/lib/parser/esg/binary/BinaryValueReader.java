@@ -0,0 +1,354 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.binary;
+
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.DEFLATED;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.DELTA;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.MAGIC;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.MAX_DIGITS;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.POWERS_OF_TEN;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.SECONDS;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.SERIES;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.TYPES;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.TYPE_SHIFT;
+import static org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter.XOR_VALUES;
+
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+
+/**
+ * Reads values in the binary encoding of the {@link BinaryValueWriter}.
+ * <p>
+ * The header is read when the reader is created, after which the payload is read either as
+ * single value or as series, depending on {@link #isSeries()}. Deflated delta series are inflated
+ * with the inflater passed on creation, or a temporary one otherwise. A reader is not thread-safe
+ * and is meant to be created for each payload.
+ */
+public class BinaryValueReader {
+
+    /**
+     * Largest length of a deflated body, to not inflate arbitrarily large payloads.
+     */
+    private static final int MAX_INFLATED_LENGTH = 1 << 24;
+
+    private byte[] bytes;
+    private int limit;
+    private int position;
+
+    private final boolean series;
+    private final boolean delta;
+    private final boolean deflated;
+    private final boolean seconds;
+    private final JsonValueType type;
+
+    private final Inflater inflater;
+
+    private long timestamp;
+    private int offset;
+    private double value;
+
+    public BinaryValueReader(byte[] bytes) throws BinaryParseException {
+        this(bytes, 0, bytes.length, null);
+    }
+
+    public BinaryValueReader(byte[] bytes, Inflater inflater) throws BinaryParseException {
+        this(bytes, 0, bytes.length, inflater);
+    }
+
+    public BinaryValueReader(byte[] bytes, int offset, int length, Inflater inflater) throws BinaryParseException {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        this.inflater = inflater;
+        
+        if (!isBinary(bytes, offset, length)) {
+            throw new BinaryParseException("Received payload without binary header");
+        }
+        position++;
+        int descriptor = readByte();
+        if ((descriptor & DELTA) != 0 && (descriptor & SERIES) == 0 ||
+                (descriptor & DEFLATED) != 0 && (descriptor & DELTA) == 0) {
+            throw error("Unsupported descriptor " + descriptor);
+        }
+        int typeCode = descriptor >>> TYPE_SHIFT;
+        if (typeCode > TYPES.length) {
+            throw error("Unknown value type " + typeCode);
+        }
+        this.series = (descriptor & SERIES) != 0;
+        this.delta = (descriptor & DELTA) != 0;
+        this.deflated = (descriptor & DEFLATED) != 0;
+        this.seconds = (descriptor & SECONDS) != 0;
+        this.type = typeCode > 0 ? TYPES[typeCode - 1] : null;
+    }
+
+    /**
+     * Returns true if the payload starts with the binary header.
+     */
+    public static boolean isBinary(byte[] bytes) {
+        return isBinary(bytes, 0, bytes.length);
+    }
+
+    public static boolean isBinary(byte[] bytes, int offset, int length) {
+        return length > 1 && bytes[offset] == MAGIC;
+    }
+
+    public boolean isSeries() {
+        return series;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Returns the type of the values, or null if the payload was written without a type.
+     */
+    public JsonValueType getType() {
+        return type;
+    }
+
+    /**
+     * Reads a single value. Its fields are available until the reader is discarded.
+     */
+    public void readValue() throws BinaryParseException {
+        if (series) {
+            throw error("Expected single value, but payload is a series");
+        }
+        timestamp = readTimestamp(readVarLong());
+        offset = readOffset();
+        value = readDouble();
+    }
+
+    /**
+     * Reads a series into a new list. The unit of the list is the unit of the payload type and the
+     * zone is the offset of the payload.
+     */
+    public JsonValueList readSeries() throws BinaryParseException {
+        if (!series) {
+            throw error("Expected series, but payload is a single value");
+        }
+        if (delta) {
+            return readDeltaSeries();
+        }
+        long count = readVarLong();
+        // Every value takes at least 9 bytes, which bounds the count before allocating for it
+        if (count < 0 || count > (limit - position) / 9) {
+            throw error("Invalid series length " + count);
+        }
+        int size = (int) count;
+        ZoneOffset zone = toZoneOffset(readOffset());
+        
+        long[] timestamps = new long[size];
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += readVarLong();
+            timestamps[i] = readTimestamp(previous);
+        }
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = readDouble();
+        }
+        JsonValueList list = new JsonValueList(timestamps, values, type != null ? type.getUnit() : null);
+        list.setZone(zone);
+        return list;
+    }
+
+    private JsonValueList readDeltaSeries() throws BinaryParseException {
+        if (deflated) {
+            inflate();
+        }
+        long count = readVarLong();
+        // Every value takes at least one byte, which bounds the count before allocating for it
+        if (count < 0 || count > limit - position) {
+            throw error("Invalid series length " + count);
+        }
+        int size = (int) count;
+        ZoneOffset zone = toZoneOffset(readOffset());
+        
+        long[] timestamps = new long[size];
+        long timestamp = readVarLong();
+        long step = readVarLong();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                timestamp += step > 0 ? step : readVarLong();
+            }
+            timestamps[i] = readTimestamp(timestamp);
+        }
+        double[] values = new double[size];
+        int digits = readByte();
+        if (digits <= MAX_DIGITS) {
+            double power = POWERS_OF_TEN[digits];
+            long decimal = 0;
+            for (int i = 0; i < size; i++) {
+                decimal += readVarLong();
+                values[i] = decimal / power;
+            }
+        }
+        else if (digits == XOR_VALUES) {
+            long bits = 0;
+            for (int i = 0; i < size; i++) {
+                int zeros = readByte();
+                if (zeros < 64) {
+                    bits ^= readUnsignedVarLong() << zeros;
+                }
+                else if (zeros > 64) {
+                    throw error("Invalid trailing zeros " + zeros);
+                }
+                values[i] = Double.longBitsToDouble(bits);
+            }
+        }
+        else {
+            throw error("Invalid fraction digits " + digits);
+        }
+        JsonValueList list = new JsonValueList(timestamps, values, type != null ? type.getUnit() : null);
+        list.setZone(zone);
+        return list;
+    }
+
+    private void inflate() throws BinaryParseException {
+        long length = readVarLong();
+        if (length < 0 || length > MAX_INFLATED_LENGTH) {
+            throw error("Invalid deflated length " + length);
+        }
+        Inflater inflater = this.inflater != null ? this.inflater : new Inflater(true);
+        try {
+            // Leave room for one more byte, to detect bodies that inflate to more than their length
+            byte[] inflated = new byte[(int) length + 1];
+            inflater.reset();
+            inflater.setInput(bytes, position, limit - position);
+            int inflatedLength = 0;
+            while (inflatedLength < inflated.length && !inflater.finished()) {
+                int read = inflater.inflate(inflated, inflatedLength, inflated.length - inflatedLength);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflatedLength += read;
+            }
+            if (inflatedLength != length || !inflater.finished() || inflater.getRemaining() > 0) {
+                throw error("Deflated body does not match its length " + length);
+            }
+            bytes = inflated;
+            position = 0;
+            limit = inflatedLength;
+            
+        } catch (DataFormatException e) {
+            throw error(e.getMessage());
+            
+        } finally {
+            if (inflater != this.inflater) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Verifies that nothing follows the read values.
+     */
+    public void end() throws BinaryParseException {
+        if (position < limit) {
+            throw error("Expected end of payload");
+        }
+    }
+
+    public long getEpochMilli() {
+        return timestamp;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    private long readTimestamp(long timestamp) throws BinaryParseException {
+        if (!seconds) {
+            return timestamp;
+        }
+        if (timestamp > Long.MAX_VALUE / 1000 || timestamp < Long.MIN_VALUE / 1000) {
+            throw error("Timestamp out of range");
+        }
+        return timestamp * 1000;
+    }
+
+    private int readOffset() throws BinaryParseException {
+        long offset = readVarLong();
+        if (offset > 18*3600 || offset < -18*3600) {
+            throw error("Offset out of range " + offset);
+        }
+        return (int) offset;
+    }
+
+    private ZoneOffset toZoneOffset(int offset) throws BinaryParseException {
+        try {
+            return ZoneOffset.ofTotalSeconds(offset);
+            
+        } catch (DateTimeException e) {
+            throw error(e.getMessage());
+        }
+    }
+
+    private int readByte() throws BinaryParseException {
+        if (position >= limit) {
+            throw error("Unexpected end of payload");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    private long readVarLong() throws BinaryParseException {
+        long bits = readUnsignedVarLong();
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    private long readUnsignedVarLong() throws BinaryParseException {
+        long bits = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            bits |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return bits;
+            }
+        }
+        throw error("Malformed varint");
+    }
+
+    private double readDouble() throws BinaryParseException {
+        if (limit - position < 8) {
+            throw error("Unexpected end of payload");
+        }
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (bytes[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private BinaryParseException error(String reason) {
+        return new BinaryParseException(position, reason);
+    }
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.PayloadBuffer;
+
+/**
+ * Writes values of the <code>timestamp</code>, <code>value</code> and <code>unit</code> model in a
+ * compact binary encoding into a reusable, growing byte buffer.
+ * <p>
+ * Every payload starts with the {@link #MAGIC} byte, followed by a descriptor byte holding the
+ * kind of payload, the timestamp resolution and the {@link JsonValueType} of the values:
+ * <pre>
+ * value  := MAGIC descriptor timestamp offset double
+ * series := MAGIC descriptor count offset timestamp delta* double*
+ * delta  := MAGIC descriptor (length deflate(body) | body)
+ * body   := count offset timestamp step delta* digits values
+ * </pre>
+ * Timestamps are zig-zag encoded varints in milliseconds, or in seconds if all of them are whole seconds,
+ * and the timestamps of a series are encoded as difference to their predecessor. Offsets are zig-zag
+ * encoded varints in seconds and a series carries the offset of its first value only. Values are
+ * big-endian IEEE 754 doubles of 8 bytes each, so they are kept exactly.
+ * <p>
+ * Delta series are meant for long forecast horizons. Evenly spaced timestamps are reduced to the
+ * first timestamp and a step, while the explicit differences only follow a step of zero. If all
+ * values are decimals of at most {@link #MAX_DIGITS} fraction digits, they are written as varint
+ * differences of the unscaled decimals, otherwise as the XOR of their bits with their predecessor,
+ * prefixed by the number of trailing zero bits. The body may optionally be deflated, if that shrinks it.
+ * <p>
+ * A writer is not thread-safe, but may be reused for several payloads after being {@link #reset()}.
+ */
+public class BinaryValueWriter implements PayloadBuffer {
+
+    /**
+     * First byte of every binary payload, which can never start a JSON document.
+     */
+    public static final byte MAGIC = (byte) 0xE5;
+
+    static final int SERIES = 0x01;
+    static final int SECONDS = 0x02;
+    static final int DELTA = 0x04;
+    static final int DEFLATED = 0x08;
+    static final int TYPE_SHIFT = 4;
+
+    static final int MAX_DIGITS = 9;
+    static final int XOR_VALUES = 0xFF;
+
+    static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9 };
+
+    /**
+     * Largest magnitude, up to which every unscaled decimal is exactly representable as double.
+     */
+    private static final double MAX_DECIMAL = 1L << 53;
+
+    static final JsonValueType[] TYPES = JsonValueType.values();
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] buffer;
+    private int size = 0;
+
+    private byte[] deflated;
+
+    public BinaryValueWriter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BinaryValueWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Writes a value of the given type, or without a type if it is null, at the epoch timestamp in
+     * milliseconds and its offset in seconds.
+     */
+    public void writeValue(long timestamp, int offset, double value, JsonValueType type) {
+        boolean seconds = timestamp % 1000 == 0;
+        ensureCapacity(2 + 10 + 5 + 8);
+        writeHeader(0, seconds, type);
+        writeVarLong(seconds ? timestamp / 1000 : timestamp);
+        writeVarLong(offset);
+        writeDouble(value);
+    }
+
+    /**
+     * Writes a series of values of the given type, or without a type if it is null. The offset is
+     * taken from the zone of the series at its first timestamp.
+     */
+    public void writeSeries(JsonValueList series, JsonValueType type) {
+        int count = series.size();
+        boolean seconds = true;
+        for (int i = 0; i < count && seconds; i++) {
+            seconds = series.getTimestamp(i) % 1000 == 0;
+        }
+        int offset = 0;
+        if (count > 0) {
+            ZoneRules rules = series.getZone().getRules();
+            ZoneOffset zoneOffset = rules.getOffset(Instant.ofEpochMilli(series.getTimestamp(0)));
+            offset = zoneOffset.getTotalSeconds();
+        }
+        ensureCapacity(2 + 5 + 5 + 18*count);
+        writeHeader(SERIES, seconds, type);
+        writeVarLong(count);
+        writeVarLong(offset);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = series.getTimestamp(i);
+            if (seconds) {
+                timestamp /= 1000;
+            }
+            writeVarLong(timestamp - previous);
+            previous = timestamp;
+        }
+        for (int i = 0; i < count; i++) {
+            writeDouble(series.getValue(i));
+        }
+    }
+
+    /**
+     * Writes a series of values of the given type, or without a type if it is null, in the delta
+     * encoding. The body will be deflated if a deflater is passed and the deflated body is smaller.
+     * The deflater will be reset before it is used.
+     */
+    public void writeDeltaSeries(JsonValueList series, JsonValueType type, Deflater deflater) {
+        int count = series.size();
+        boolean seconds = true;
+        for (int i = 0; i < count && seconds; i++) {
+            seconds = series.getTimestamp(i) % 1000 == 0;
+        }
+        long step = count > 1 ? series.getTimestamp(1) - series.getTimestamp(0) : 0;
+        for (int i = 2; i < count && step > 0; i++) {
+            if (series.getTimestamp(i) - series.getTimestamp(i - 1) != step) {
+                step = 0;
+            }
+        }
+        if (step < 0) {
+            step = 0;
+        }
+        int offset = 0;
+        if (count > 0) {
+            ZoneRules rules = series.getZone().getRules();
+            offset = rules.getOffset(Instant.ofEpochMilli(series.getTimestamp(0))).getTotalSeconds();
+        }
+        ensureCapacity(2 + 5 + 5 + 10 + 10 + 1 + (step > 0 ? 0 : 10*count) + 11*count);
+        int start = size;
+        writeHeader(SERIES | DELTA, seconds, type);
+        
+        int bodyStart = size;
+        int divisor = seconds ? 1000 : 1;
+        writeVarLong(count);
+        writeVarLong(offset);
+        writeVarLong(count > 0 ? series.getTimestamp(0) / divisor : 0);
+        writeVarLong(step / divisor);
+        if (step == 0) {
+            for (int i = 1; i < count; i++) {
+                writeVarLong((series.getTimestamp(i) - series.getTimestamp(i - 1)) / divisor);
+            }
+        }
+        int digits = decimalDigits(series);
+        buffer[size++] = (byte) digits;
+        if (digits != XOR_VALUES) {
+            double power = POWERS_OF_TEN[digits];
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long decimal = Math.round(series.getValue(i) * power);
+                writeVarLong(decimal - previous);
+                previous = decimal;
+            }
+        }
+        else {
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                long bits = Double.doubleToRawLongBits(series.getValue(i));
+                long xor = bits ^ previous;
+                int zeros = Long.numberOfTrailingZeros(xor);
+                buffer[size++] = (byte) zeros;
+                if (zeros < 64) {
+                    writeUnsignedVarLong(xor >>> zeros);
+                }
+                previous = bits;
+            }
+        }
+        if (deflater != null) {
+            deflate(start, bodyStart, deflater);
+        }
+    }
+
+    private void deflate(int start, int bodyStart, Deflater deflater) {
+        int length = size - bodyStart;
+        if (deflated == null || deflated.length < length) {
+            deflated = new byte[Math.max(INITIAL_CAPACITY, length)];
+        }
+        deflater.reset();
+        deflater.setInput(buffer, bodyStart, length);
+        deflater.finish();
+        int deflatedLength = 0;
+        while (!deflater.finished() && deflatedLength < length) {
+            deflatedLength += deflater.deflate(deflated, deflatedLength, length - deflatedLength);
+        }
+        // Keep the plain body, if deflating it does not save at least the bytes of its length prefix
+        if (!deflater.finished() || deflatedLength + 5 >= length) {
+            return;
+        }
+        buffer[start + 1] |= DEFLATED;
+        size = bodyStart;
+        writeVarLong(length);
+        System.arraycopy(deflated, 0, buffer, size, deflatedLength);
+        size += deflatedLength;
+    }
+
+    /**
+     * Returns the number of fraction digits, all values of the series can be written with exactly,
+     * or {@link #XOR_VALUES} if there are more than {@link #MAX_DIGITS} or values out of range.
+     */
+    private static int decimalDigits(JsonValueList series) {
+        int digits = 0;
+        for (int i = 0; i < series.size(); i++) {
+            while (!isDecimal(series.getValue(i), POWERS_OF_TEN[digits])) {
+                if (++digits > MAX_DIGITS) {
+                    return XOR_VALUES;
+                }
+            }
+        }
+        // A value may be exact with fewer, but not with more digits, so verify all of them again
+        for (int i = 0; i < series.size(); i++) {
+            if (!isDecimal(series.getValue(i), POWERS_OF_TEN[digits])) {
+                return XOR_VALUES;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean isDecimal(double value, double power) {
+        double scaled = value * power;
+        if (!(Math.abs(scaled) < MAX_DECIMAL)) {
+            return false;
+        }
+        double decimal = Math.round(scaled) / power;
+        return Double.doubleToRawLongBits(decimal) == Double.doubleToRawLongBits(value);
+    }
+
+    private void writeHeader(int flags, boolean seconds, JsonValueType type) {
+        int descriptor = flags | (seconds ? SECONDS : 0);
+        if (type != null) {
+            descriptor |= (type.ordinal() + 1) << TYPE_SHIFT;
+        }
+        buffer[size++] = MAGIC;
+        buffer[size++] = (byte) descriptor;
+    }
+
+    private void writeVarLong(long value) {
+        // Zig-zag encode, so small negative numbers take few bytes as well
+        writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeUnsignedVarLong(long bits) {
+        while ((bits & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        buffer[size++] = (byte) bits;
+    }
+
+    private void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2*buffer.length, size + length));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer target) throws BufferOverflowException {
+        target.put(buffer, 0, size);
+    }
+
+    @Override
+    public void writeTo(OutputStream stream) throws IOException {
+        stream.write(buffer, 0, size);
+    }
+
+}
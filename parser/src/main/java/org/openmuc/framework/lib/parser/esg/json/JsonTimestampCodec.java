@@ -0,0 +1,337 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.json;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Formats and parses ISO-8601 timestamps with offset, as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}
+ * does, directly from and to epoch milliseconds and bytes.
+ * <p>
+ * Timestamps are usually close to each other, on hour or quarter-hour boundaries. The codec
+ * caches the formatted date and hour of the last formatted timestamp, as well as the epoch day
+ * of the last parsed date, so successive timestamps only need to handle minutes and seconds.
+ * Anything the fast path can not handle, like years beyond four digits, lowercase separators or
+ * sub-millisecond fractions, is delegated to the {@link DateTimeFormatter}.
+ * <p>
+ * A codec is not thread-safe.
+ */
+public class JsonTimestampCodec {
+
+    /**
+     * Maximum length of a timestamp formatted by this codec, with year, fraction and offset seconds.
+     */
+    public static final int MAX_LENGTH = 48;
+
+    private static final long MILLIS_PER_HOUR = 3600000L;
+    private static final long MILLIS_PER_DAY = 24*MILLIS_PER_HOUR;
+
+    private static final int PREFIX_LENGTH = 14;
+
+    private final byte[] prefix = new byte[PREFIX_LENGTH];
+    private byte[] offsetId;
+    private int prefixOffset;
+    private long prefixHour = Long.MIN_VALUE;
+
+    private final byte[] parsedDate = new byte[10];
+    private long parsedEpochDay = Long.MIN_VALUE;
+
+    private int offsetSeconds;
+
+    public int format(long epochMilli, ZoneOffset offset, byte[] buffer, int position) {
+        return format(epochMilli, offset.getTotalSeconds(), buffer, position);
+    }
+
+    /**
+     * Formats the timestamp into the buffer at the given position, which needs to have at least
+     * {@link #MAX_LENGTH} bytes remaining, and returns the position after the timestamp.
+     */
+    public int format(long epochMilli, int offsetSeconds, byte[] buffer, int position) {
+        long localMilli = epochMilli + offsetSeconds*1000L;
+        long hour = Math.floorDiv(localMilli, MILLIS_PER_HOUR);
+        if (hour != prefixHour || offsetSeconds != prefixOffset) {
+            if (!formatPrefix(localMilli, offsetSeconds)) {
+                return formatFallback(epochMilli, offsetSeconds, buffer, position);
+            }
+            prefixHour = hour;
+            prefixOffset = offsetSeconds;
+        }
+        int millisOfHour = (int) (localMilli - hour*MILLIS_PER_HOUR);
+        int minute = millisOfHour/60000;
+        int second = millisOfHour/1000 % 60;
+        int milli = millisOfHour % 1000;
+        
+        System.arraycopy(prefix, 0, buffer, position, PREFIX_LENGTH);
+        position += PREFIX_LENGTH;
+        position = writeTwoDigits(minute, buffer, position);
+        buffer[position++] = ':';
+        position = writeTwoDigits(second, buffer, position);
+        if (milli > 0) {
+            buffer[position++] = '.';
+            buffer[position++] = (byte) ('0' + milli/100);
+            if (milli % 100 > 0) {
+                buffer[position++] = (byte) ('0' + milli/10 % 10);
+                if (milli % 10 > 0) {
+                    buffer[position++] = (byte) ('0' + milli % 10);
+                }
+            }
+        }
+        System.arraycopy(offsetId, 0, buffer, position, offsetId.length);
+        return position + offsetId.length;
+    }
+
+    public int format(ZonedDateTime timestamp, byte[] buffer, int position) {
+        if (timestamp.getNano() % 1000000 != 0) {
+            return formatFallback(timestamp, buffer, position);
+        }
+        return format(timestamp.toInstant().toEpochMilli(), timestamp.getOffset().getTotalSeconds(), buffer, position);
+    }
+
+    private boolean formatPrefix(long localMilli, int offsetSeconds) {
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(localMilli, MILLIS_PER_DAY));
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return false;
+        }
+        int hour = (int) (Math.floorMod(localMilli, MILLIS_PER_DAY)/MILLIS_PER_HOUR);
+        int position = writeTwoDigits(year/100, prefix, 0);
+        position = writeTwoDigits(year % 100, prefix, position);
+        prefix[position++] = '-';
+        position = writeTwoDigits(date.getMonthValue(), prefix, position);
+        prefix[position++] = '-';
+        position = writeTwoDigits(date.getDayOfMonth(), prefix, position);
+        prefix[position++] = 'T';
+        position = writeTwoDigits(hour, prefix, position);
+        prefix[position++] = ':';
+        
+        if (offsetId == null || offsetSeconds != prefixOffset) {
+            offsetId = ZoneOffset.ofTotalSeconds(offsetSeconds).getId().getBytes(StandardCharsets.US_ASCII);
+        }
+        return true;
+    }
+
+    private static int formatFallback(long epochMilli, int offsetSeconds, byte[] buffer, int position) {
+        OffsetDateTime timestamp = OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.ofTotalSeconds(offsetSeconds));
+        return writeAscii(timestamp.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME), buffer, position);
+    }
+
+    private static int formatFallback(ZonedDateTime timestamp, byte[] buffer, int position) {
+        return writeAscii(timestamp.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME), buffer, position);
+    }
+
+    private static int writeAscii(String string, byte[] buffer, int position) {
+        for (int i = 0; i < string.length(); i++) {
+            buffer[position++] = (byte) string.charAt(i);
+        }
+        return position;
+    }
+
+    private static int writeTwoDigits(int value, byte[] buffer, int position) {
+        buffer[position++] = (byte) ('0' + value/10);
+        buffer[position++] = (byte) ('0' + value % 10);
+        return position;
+    }
+
+    /**
+     * Parses the timestamp of the given bytes into epoch milliseconds, truncating any sub-millisecond
+     * fraction. The offset of the parsed timestamp is available via {@link #getOffsetSeconds()}.
+     * 
+     * @throws DateTimeException if the bytes are no valid timestamp
+     */
+    public long parse(byte[] bytes, int start, int end) throws DateTimeException {
+        long epochMilli = parseFast(bytes, start, end);
+        if (epochMilli != Long.MIN_VALUE) {
+            return epochMilli;
+        }
+        return parseFormatted(bytes, start, end);
+    }
+
+    /**
+     * Parses the timestamp like {@link #parse(byte[], int, int)}, but returns {@link Long#MIN_VALUE}
+     * instead of throwing an exception, if the bytes are no valid timestamp.
+     */
+    public long tryParse(byte[] bytes, int start, int end) {
+        long epochMilli = parseFast(bytes, start, end);
+        if (epochMilli != Long.MIN_VALUE) {
+            return epochMilli;
+        }
+        // Only leave bytes shaped like a timestamp to the formatter, which fails with an expensive exception
+        if (end - start < 16 || end - start > MAX_LENGTH ||
+                bytes[start] != '+' && bytes[start] != '-' && (bytes[start] < '0' || bytes[start] > '9')) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return parseFormatted(bytes, start, end);
+            
+        } catch (DateTimeException | ArithmeticException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private long parseFormatted(byte[] bytes, int start, int end) throws DateTimeException {
+        String timestamp = new String(bytes, start, end - start, StandardCharsets.ISO_8859_1);
+        OffsetDateTime dateTime = OffsetDateTime.parse(timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        offsetSeconds = dateTime.getOffset().getTotalSeconds();
+        return dateTime.toInstant().toEpochMilli();
+    }
+
+    /**
+     * Returns the offset in seconds of the last parsed timestamp.
+     */
+    public int getOffsetSeconds() {
+        return offsetSeconds;
+    }
+
+    /**
+     * Parses timestamps of the form <code>yyyy-MM-ddTHH:mm[:ss[.SSS...]](Z|+HH:MM[:ss])</code>,
+     * or returns {@link Long#MIN_VALUE} to fall back to the {@link DateTimeFormatter}.
+     */
+    private long parseFast(byte[] bytes, int start, int end) {
+        if (end - start < 17 || bytes[start + 4] != '-' || bytes[start + 7] != '-' || bytes[start + 10] != 'T' ||
+                bytes[start + 13] != ':') {
+            return Long.MIN_VALUE;
+        }
+        long epochDay = parseEpochDay(bytes, start);
+        if (epochDay == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        int hour = parseTwoDigits(bytes, start + 11);
+        int minute = parseTwoDigits(bytes, start + 14);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return Long.MIN_VALUE;
+        }
+        int position = start + 16;
+        int second = 0;
+        int milli = 0;
+        if (position < end && bytes[position] == ':') {
+            if (position + 3 > end) {
+                return Long.MIN_VALUE;
+            }
+            second = parseTwoDigits(bytes, position + 1);
+            if (second < 0 || second > 59) {
+                return Long.MIN_VALUE;
+            }
+            position += 3;
+            if (position < end && bytes[position] == '.') {
+                position++;
+                int digits = 0;
+                while (position < end && bytes[position] >= '0' && bytes[position] <= '9') {
+                    if (digits < 3) {
+                        milli = 10*milli + (bytes[position] - '0');
+                    }
+                    digits++;
+                    position++;
+                }
+                if (digits == 0 || digits > 9) {
+                    return Long.MIN_VALUE;
+                }
+                for (int i = digits; i < 3; i++) {
+                    milli *= 10;
+                }
+            }
+        }
+        int offset = parseOffset(bytes, position, end);
+        if (offset == Integer.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        offsetSeconds = offset;
+        
+        long epochSecond = epochDay*86400L + hour*3600 + minute*60 + second - offset;
+        return epochSecond*1000L + milli;
+    }
+
+    private long parseEpochDay(byte[] bytes, int start) {
+        boolean cached = parsedEpochDay != Long.MIN_VALUE;
+        for (int i = 0; i < parsedDate.length && cached; i++) {
+            cached = parsedDate[i] == bytes[start + i];
+        }
+        if (cached) {
+            return parsedEpochDay;
+        }
+        int century = parseTwoDigits(bytes, start);
+        int year = parseTwoDigits(bytes, start + 2);
+        int month = parseTwoDigits(bytes, start + 5);
+        int day = parseTwoDigits(bytes, start + 8);
+        if (century < 0 || year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Long.MIN_VALUE;
+        }
+        year += 100*century;
+        if (day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return Long.MIN_VALUE;
+        }
+        System.arraycopy(bytes, start, parsedDate, 0, parsedDate.length);
+        parsedEpochDay = LocalDate.of(year, month, day).toEpochDay();
+        return parsedEpochDay;
+    }
+
+    private static int parseOffset(byte[] bytes, int position, int end) {
+        if (position + 1 == end && bytes[position] == 'Z') {
+            return 0;
+        }
+        if (end - position != 6 && end - position != 9 || bytes[position + 3] != ':') {
+            return Integer.MIN_VALUE;
+        }
+        int sign;
+        if (bytes[position] == '+') {
+            sign = 1;
+        }
+        else if (bytes[position] == '-') {
+            sign = -1;
+        }
+        else {
+            return Integer.MIN_VALUE;
+        }
+        int hours = parseTwoDigits(bytes, position + 1);
+        int minutes = parseTwoDigits(bytes, position + 4);
+        int seconds = 0;
+        if (end - position == 9) {
+            if (bytes[position + 6] != ':') {
+                return Integer.MIN_VALUE;
+            }
+            seconds = parseTwoDigits(bytes, position + 7);
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int offset = hours*3600 + minutes*60 + seconds;
+        if (offset > 18*3600) {
+            return Integer.MIN_VALUE;
+        }
+        return sign*offset;
+    }
+
+    private static int parseTwoDigits(byte[] bytes, int position) {
+        int tens = bytes[position] - '0';
+        int ones = bytes[position + 1] - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return 10*tens + ones;
+    }
+
+}
@@ -20,20 +20,20 @@
  */
 package org.openmuc.framework.lib.parser.esg.json;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
 import org.openmuc.framework.data.DoubleValue;
 import org.openmuc.framework.data.Value;
 
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 public class JsonValue {
 
@@ -49,6 +49,10 @@ public class JsonValue {
 		this.unit = unit;
 	}
 
+	public JsonValue(ZonedDateTime timestamp, double value, String unit) {
+		this(timestamp, new DoubleValue(value), unit);
+	}
+
 	public ZonedDateTime getTimestamp() {
 		return timestamp;
 	}
@@ -61,10 +65,18 @@ public class JsonValue {
 		return value;
 	}
 
+	public double getValueAsDouble() {
+		return value.asDouble();
+	}
+
 	public void setValue(Value value) {
 		this.value = value;
 	}
 
+	public void setValue(double value) {
+		this.value = new DoubleValue(value);
+	}
+
 	public String getUnit() {
 		return unit;
 	}
@@ -77,42 +89,115 @@ public class JsonValue {
 		return unit != null && !unit.isEmpty();
 	}
 
+	private static final JsonValueAdapter ADAPTER = new JsonValueAdapter();
+
 	public static JsonElement serialize(JsonValue jsonValue) {
-        JsonObject jsonObj = new JsonObject();
-        jsonObj.addProperty("timestamp", jsonValue.getTimestamp().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        jsonObj.addProperty("value", jsonValue.getValue().asDouble());
-        if (jsonValue.hasUnit()) {
-        	jsonObj.addProperty("unit", jsonValue.getUnit());
-        }
-        return jsonObj;
+        return ADAPTER.toJsonTree(jsonValue);
 	}
 
 	public static JsonValue deserialize(JsonElement json) throws JsonParseException {
-    	if (!json.isJsonObject()) {
-    		throw new JsonParseException("Received malformed JSON string: " + json.getAsString());
-    	}
-    	JsonObject jsonObj = json.getAsJsonObject();
-    	
-		ZonedDateTime timestamp = ZonedDateTime.parse(jsonObj.get("timestamp").getAsString(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-		DoubleValue value = new DoubleValue(jsonObj.get("value").getAsDouble());
-		String unit = null;
-		if (jsonObj.has("unit")) {
-			unit = jsonObj.get("unit").getAsString();
-		}
-		return new JsonValue(timestamp, value, unit);
+        return ADAPTER.fromJsonTree(json);
 	}
 
-    public static class JsonValueAdapter implements JsonSerializer<JsonValue>, JsonDeserializer<JsonValue> {
+	/**
+	 * Streaming adapter, reading and writing values directly from and to the JSON token stream,
+	 * without building an intermediate {@link JsonElement} tree.
+	 * Fields may appear in any order and unknown fields will be skipped. Like the {@link JsonValueWriter},
+	 * NaN and infinities are written and read as literals.
+	 */
+    public static class JsonValueAdapter extends TypeAdapter<JsonValue> {
 
         @Override
-        public JsonElement serialize(JsonValue jsonValue, Type typeOfSrc, JsonSerializationContext context) {
-            return JsonValue.serialize(jsonValue);
+        public void write(JsonWriter out, JsonValue jsonValue) throws IOException {
+            if (jsonValue == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("timestamp").value(jsonValue.getTimestamp().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            out.name("value");
+            writeDouble(out, jsonValue.getValueAsDouble());
+            if (jsonValue.hasUnit()) {
+                out.name("unit").value(jsonValue.getUnit());
+            }
+            out.endObject();
         }
 
-		@Override
-		public JsonValue deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-		        throws JsonParseException {
-			return JsonValue.deserialize(json);
-		}
+        @Override
+        public JsonValue read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            if (token != JsonToken.BEGIN_OBJECT) {
+                throw new JsonParseException("Received malformed JSON value of token: " + token);
+            }
+            ZonedDateTime timestamp = null;
+            double value = Double.NaN;
+            boolean hasValue = false;
+            String unit = null;
+            
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                case "timestamp":
+                    timestamp = parseTimestamp(in.nextString());
+                    break;
+                case "value":
+                    value = readDouble(in);
+                    hasValue = true;
+                    break;
+                case "unit":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    }
+                    else {
+                        unit = in.nextString();
+                    }
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+                }
+            }
+            in.endObject();
+            
+            if (timestamp == null || !hasValue) {
+                throw new JsonParseException("Received JSON value without timestamp or value");
+            }
+            return new JsonValue(timestamp, value, unit);
+        }
+
+        private static void writeDouble(JsonWriter out, double value) throws IOException {
+            boolean lenient = out.isLenient();
+            out.setLenient(true);
+            try {
+                out.value(value);
+                
+            } finally {
+                out.setLenient(lenient);
+            }
+        }
+
+        private static double readDouble(JsonReader in) throws IOException {
+            boolean lenient = in.isLenient();
+            in.setLenient(true);
+            try {
+                return in.nextDouble();
+                
+            } finally {
+                in.setLenient(lenient);
+            }
+        }
+
+        private static ZonedDateTime parseTimestamp(String timestamp) throws JsonParseException {
+            try {
+                return ZonedDateTime.parse(timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                
+            } catch (DateTimeException e) {
+                throw new JsonParseException("Received malformed timestamp: " + timestamp);
+            }
+        }
     }
 }
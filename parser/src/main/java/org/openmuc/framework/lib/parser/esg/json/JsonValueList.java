@@ -20,87 +20,229 @@
  */
 package org.openmuc.framework.lib.parser.esg.json;
 
-import java.lang.reflect.Type;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
 
-import org.openmuc.framework.data.DoubleValue;
-import org.openmuc.framework.data.Value;
-
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
 
+/**
+ * Columnar series of values, holding epoch timestamps in milliseconds and values in primitive arrays,
+ * with a single unit for the whole series.
+ * <p>
+ * Series are used for forecasts, which may hold several days in quarter-hourly resolution, without
+ * the overhead of a {@link JsonValue} object per point. The zone is only used to write the offsets
+ * of the timestamps. A series is not thread-safe and should not be modified once it is shared.
+ */
 public class JsonValueList {
 
-	final ZonedDateTime timestamp;
+    private static final int DEFAULT_CAPACITY = 24;
+
+    private long[] timestamps;
+
+    private double[] values;
+
+    private int size = 0;
+
+    private boolean sorted = true;
+
+    private String unit;
+
+    private ZoneId zone = ZoneOffset.UTC;
+
+    public JsonValueList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public JsonValueList(int capacity) {
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    public JsonValueList(long[] timestamps, double[] values, String unit) {
+        if (timestamps.length != values.length) {
+            throw new IllegalArgumentException("Timestamps and values differ in length");
+        }
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = timestamps.length;
+        this.sorted = isSorted(timestamps, size);
+        this.unit = unit;
+    }
+
+    public void add(long timestamp, double value) {
+        if (size == timestamps.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, 2*size);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (size > 0 && timestamps[size - 1] > timestamp) {
+            sorted = false;
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void setValue(int index, double value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    /**
+     * Multiplies all values with the factor.
+     */
+    public void scale(double factor) {
+        ValueScaling.scale(values, 0, size, factor);
+    }
+
+    /**
+     * Copies all values divided by the divisor into the target array, starting at the offset.
+     */
+    public void copyValues(double[] target, int offset, double divisor) {
+        ValueScaling.divide(values, 0, target, offset, size, divisor);
+    }
+
+    public String getUnit() {
+        return unit;
+    }
 
-	final Value value;
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public boolean hasUnit() {
+        return unit != null && !unit.isEmpty();
+    }
 
-	final String unit;
+    public ZoneId getZone() {
+        return zone;
+    }
 
-	public JsonValueList(ZonedDateTime timestamp, Value value, String unit) {
-		this.timestamp = timestamp;
-		this.value = value;
-		this.unit = unit;
-	}
+    public void setZone(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    public JsonValue get(int index) {
+        checkIndex(index);
+        ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamps[index]), zone);
+        return new JsonValue(timestamp, values[index], unit);
+    }
 
-	public ZonedDateTime getTimestamp() {
-		return timestamp;
-	}
+    /**
+     * Sorts the series by timestamp, keeping the order of equal timestamps. Series are usually built
+     * in order already, which an insertion sort passes in linear time.
+     */
+    public void sort() {
+        if (sorted) {
+            return;
+        }
+        for (int i = 1; i < size; i++) {
+            long timestamp = timestamps[i];
+            double value = values[i];
+            int j = i - 1;
+            while (j >= 0 && timestamps[j] > timestamp) {
+                timestamps[j + 1] = timestamps[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            timestamps[j + 1] = timestamp;
+            values[j + 1] = value;
+        }
+        sorted = true;
+    }
 
-	public Value getValue() {
-		return value;
-	}
+    public boolean isSorted() {
+        return sorted;
+    }
 
-	public String getUnit() {
-		return unit;
-	}
+    /**
+     * Returns the index of the first value at the given timestamp, or a negative number if the series
+     * holds no value for it. The series is never modified, so it may be searched by several threads,
+     * but needs to be sorted already.
+     * 
+     * @throws IllegalStateException if the series is not sorted
+     */
+    public int indexOf(long timestamp) throws IllegalStateException {
+        if (!sorted) {
+            throw new IllegalStateException("Unable to search unsorted series");
+        }
+        int index = Arrays.binarySearch(timestamps, 0, size, timestamp);
+        while (index > 0 && timestamps[index - 1] == timestamp) {
+            index--;
+        }
+        return index;
+    }
 
-	public boolean hasUnit() {
-		return unit != null && !unit.isEmpty();
-	}
+    /**
+     * Writes the series as array of values without units, with the offsets of the series zone.
+     */
+    public void write(JsonValueWriter writer) {
+        ZoneRules rules = zone.getRules();
+        ZoneOffset fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+        writer.beginArray();
+        for (int i = 0; i < size; i++) {
+            ZoneOffset offset = fixedOffset != null ? fixedOffset : rules.getOffset(Instant.ofEpochMilli(timestamps[i]));
+            writer.writeValue(timestamps[i], offset.getTotalSeconds(), values[i]);
+        }
+        writer.endArray();
+    }
 
-	public static JsonElement serialize(JsonValueList jsonValue) {
-        JsonObject jsonObj = new JsonObject();
-        jsonObj.addProperty("timestamp", jsonValue.getTimestamp().format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-        jsonObj.addProperty("value", jsonValue.getValue().asDouble());
-        if (jsonValue.hasUnit()) {
-        	jsonObj.addProperty("unit", jsonValue.getUnit());
+    /**
+     * Reads an array of values into a new series. The unit of the series is the first unit found
+     * and the zone is the offset of the first value.
+     */
+    public static JsonValueList read(JsonValueReader reader) throws JsonParseException {
+        JsonValueList list = new JsonValueList();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.readValue();
+            if (list.isEmpty()) {
+                list.setZone(ZoneOffset.ofTotalSeconds(reader.getOffset()));
+            }
+            if (list.unit == null) {
+                list.unit = reader.getUnit();
+            }
+            list.add(reader.getEpochMilli(), reader.getValue());
         }
-        return jsonObj;
-	}
-
-	public static JsonValueList deserialize(JsonElement json) throws JsonParseException {
-    	if (!json.isJsonObject()) {
-    		throw new JsonParseException("Received malformed JSON string: " + json.getAsString());
-    	}
-    	JsonObject jsonObj = json.getAsJsonObject();
-    	
-		ZonedDateTime timestamp = ZonedDateTime.parse(jsonObj.get("timestamp").getAsString(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-		DoubleValue value = new DoubleValue(jsonObj.get("value").getAsDouble());
-		String unit = null;
-		if (jsonObj.has("unit")) {
-			unit = jsonObj.get("unit").getAsString();
-		}
-		return new JsonValueList(timestamp, value, unit);
-	}
-
-    public static class JsonValueAdapter implements JsonSerializer<JsonValueList>, JsonDeserializer<JsonValueList> {
-
-        @Override
-        public JsonElement serialize(JsonValueList jsonValue, Type typeOfSrc, JsonSerializationContext context) {
-            return JsonValueList.serialize(jsonValue);
+        reader.endArray();
+        return list;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
         }
+    }
 
-		@Override
-		public JsonValueList deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-		        throws JsonParseException {
-			return JsonValueList.deserialize(json);
-		}
+    private static boolean isSorted(long[] timestamps, int size) {
+        for (int i = 1; i < size; i++) {
+            if (timestamps[i - 1] > timestamps[i]) {
+                return false;
+            }
+        }
+        return true;
     }
+
 }
@@ -0,0 +1,592 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.json;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Reads values of the fixed <code>timestamp</code>, <code>value</code> and <code>unit</code> schema
+ * directly from the UTF-8 encoded bytes of a payload, without decoding it into a String first.
+ * <p>
+ * A reader reads either a single value, or an array of values one after another, and keeps the
+ * fields of the last read value. Fields may appear in any order and unknown fields are skipped.
+ * A reader is not thread-safe and is meant to be created for each payload.
+ * <p>
+ * Malformed payloads throw a {@link MalformedJsonException}, while the <code>try</code> methods
+ * report them by their return value, without any exception at all.
+ */
+public class JsonValueReader {
+
+    private static final byte[] TIMESTAMP = "timestamp".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VALUE = "value".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNIT = "unit".getBytes(StandardCharsets.US_ASCII);
+
+    private static final JsonValueType[] TYPES = JsonValueType.values();
+    private static final byte[][] TYPE_UNITS = new byte[TYPES.length][];
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPE_UNITS[i] = TYPES[i].getUnit().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final int MAX_DEPTH = 32;
+
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    private final JsonTimestampCodec timestamps = new JsonTimestampCodec();
+
+    private boolean array = false;
+    private int count = 0;
+
+    private long timestamp;
+    private int offset;
+    private double value;
+    private String unit;
+
+    /**
+     * Reason and position of the first error, as errors are passed up by return values.
+     */
+    private String error;
+    private int errorPosition;
+
+    public JsonValueReader(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public JsonValueReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean isArray() throws JsonParseException {
+        return peekOrThrow() == '[';
+    }
+
+    public void beginArray() throws JsonParseException {
+        check(expect('['));
+        array = true;
+        count = 0;
+    }
+
+    public boolean hasNext() throws JsonParseException {
+        return peekOrThrow() != ']';
+    }
+
+    public void endArray() throws JsonParseException {
+        check(expect(']'));
+        array = false;
+    }
+
+    /**
+     * Verifies that nothing but whitespace follows the read values.
+     */
+    public void end() throws JsonParseException {
+        check(tryEnd());
+    }
+
+    /**
+     * Verifies the end of the payload like {@link #end()}, but returns false instead of throwing an
+     * exception. The error is available by {@link #getError()}.
+     */
+    public boolean tryEnd() {
+        skipWhitespace();
+        if (position < limit) {
+            return fail("Expected end of payload");
+        }
+        return error == null;
+    }
+
+    /**
+     * Reads the next value object. Its fields are available until the next value is read.
+     */
+    public void readValue() throws JsonParseException {
+        check(tryReadValue());
+    }
+
+    /**
+     * Reads the next value object like {@link #readValue()}, but returns false instead of throwing an
+     * exception if the payload is malformed. The error is available by {@link #getError()}.
+     */
+    public boolean tryReadValue() {
+        if (error != null) {
+            return false;
+        }
+        if (array && count++ > 0 && !expect(',')) {
+            return false;
+        }
+        if (!expect('{')) {
+            return false;
+        }
+        long timestamp = 0;
+        boolean hasTimestamp = false;
+        double value = Double.NaN;
+        boolean hasValue = false;
+        String unit = null;
+        
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                int nameStart = position + 1;
+                int nameEnd = skipString();
+                if (nameEnd < 0 || !expect(':')) {
+                    return false;
+                }
+                if (equals(nameStart, nameEnd, TIMESTAMP)) {
+                    timestamp = readTimestamp();
+                    hasTimestamp = true;
+                }
+                else if (equals(nameStart, nameEnd, VALUE)) {
+                    value = readNumber();
+                    hasValue = true;
+                }
+                else if (equals(nameStart, nameEnd, UNIT)) {
+                    unit = readUnit();
+                }
+                else {
+                    skipValue(0);
+                }
+                if (error != null) {
+                    return false;
+                }
+            } while (consume(','));
+            
+            if (!expect('}')) {
+                return false;
+            }
+        }
+        if (!hasTimestamp || !hasValue) {
+            return fail("Expected timestamp and value");
+        }
+        this.timestamp = timestamp;
+        this.offset = timestamps.getOffsetSeconds();
+        this.value = value;
+        this.unit = unit;
+        return true;
+    }
+
+    /**
+     * Returns the error of the first malformed part of the payload, or null if none was read yet.
+     */
+    public MalformedJsonException getError() {
+        if (error == null) {
+            return null;
+        }
+        return new MalformedJsonException(errorPosition, error);
+    }
+
+    /**
+     * Returns the timestamp at the offset it was read with. Fractions below milliseconds are truncated.
+     */
+    public ZonedDateTime getTimestamp() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.ofTotalSeconds(offset));
+    }
+
+    public long getEpochMilli() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the offset of the timestamp in seconds.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public JsonValue toJsonValue() {
+        return new JsonValue(getTimestamp(), value, unit);
+    }
+
+    private long readTimestamp() {
+        skipWhitespace();
+        int start = position + 1;
+        int end = skipString();
+        if (end < 0) {
+            return 0;
+        }
+        long timestamp = timestamps.tryParse(bytes, start, end);
+        if (timestamp == Long.MIN_VALUE) {
+            position = start;
+            fail("Malformed timestamp");
+        }
+        return timestamp;
+    }
+
+    private String readUnit() {
+        int next = peek();
+        if (next == 'n') {
+            skipLiteral("null");
+            return null;
+        }
+        int start = position + 1;
+        int end = skipString();
+        if (end < 0) {
+            return null;
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            if (equals(start, end, TYPE_UNITS[i])) {
+                return TYPES[i].getUnit();
+            }
+        }
+        return decodeString(start, end);
+    }
+
+    /**
+     * Parses a number, directly from the digits if they can be represented exactly, or falls back to
+     * {@link Double#parseDouble(String)} otherwise. Numbers wrapped in quotes are accepted as well, as
+     * are the literals <code>NaN</code>, <code>Infinity</code> and <code>-Infinity</code> of lenient writers.
+     */
+    private double readNumber() {
+        boolean quoted = peek() == '"';
+        if (quoted) {
+            position++;
+        }
+        boolean negative = consumeByte('-');
+        if (position < limit && (bytes[position] == 'N' || bytes[position] == 'I')) {
+            return readNonFinite(quoted, negative);
+        }
+        int start = position;
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        
+        int integerStart = position;
+        while (position < limit && isDigit(bytes[position])) {
+            mantissa = 10*mantissa + (bytes[position++] - '0');
+            digits++;
+        }
+        if (position == integerStart) {
+            fail("Expected number");
+            return Double.NaN;
+        }
+        if (consumeByte('.')) {
+            int fractionStart = position;
+            while (position < limit && isDigit(bytes[position])) {
+                if (digits < 18) {
+                    mantissa = 10*mantissa + (bytes[position] - '0');
+                    exponent--;
+                }
+                digits++;
+                position++;
+            }
+            if (position == fractionStart) {
+                fail("Expected fraction digits");
+                return Double.NaN;
+            }
+        }
+        if (position < limit && (bytes[position] == 'e' || bytes[position] == 'E')) {
+            position++;
+            boolean negativeExponent = consumeByte('-');
+            if (!negativeExponent) {
+                consumeByte('+');
+            }
+            int exponentStart = position;
+            int exponentValue = 0;
+            while (position < limit && isDigit(bytes[position])) {
+                if (exponentValue < 10000) {
+                    exponentValue = 10*exponentValue + (bytes[position] - '0');
+                }
+                position++;
+            }
+            if (position == exponentStart) {
+                fail("Expected exponent digits");
+                return Double.NaN;
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        int end = position;
+        if (quoted && !expectByte('"')) {
+            return Double.NaN;
+        }
+        double result;
+        if (digits <= 15 && exponent >= -22 && exponent <= 22) {
+            result = exponent < 0 ? mantissa/POWERS_OF_TEN[-exponent] : mantissa*POWERS_OF_TEN[exponent];
+        }
+        else {
+            result = Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.US_ASCII));
+        }
+        return negative ? -result : result;
+    }
+
+    private double readNonFinite(boolean quoted, boolean negative) {
+        double result;
+        if (bytes[position] == 'N' && !negative) {
+            if (!skipLiteral("NaN")) {
+                return Double.NaN;
+            }
+            result = Double.NaN;
+        }
+        else {
+            if (!skipLiteral("Infinity")) {
+                return Double.NaN;
+            }
+            result = negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        if (quoted && !expectByte('"')) {
+            return Double.NaN;
+        }
+        return result;
+    }
+
+    private boolean skipValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            return fail("Exceeded maximum nesting depth");
+        }
+        switch (peek()) {
+        case -1:
+            return false;
+        case '{':
+            position++;
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    if (skipString() < 0 || !expect(':') || !skipValue(depth + 1)) {
+                        return false;
+                    }
+                } while (consume(','));
+                return expect('}');
+            }
+            return true;
+        case '[':
+            position++;
+            if (!consume(']')) {
+                do {
+                    if (!skipValue(depth + 1)) {
+                        return false;
+                    }
+                } while (consume(','));
+                return expect(']');
+            }
+            return true;
+        case '"':
+            return skipString() >= 0;
+        case 't':
+            return skipLiteral("true");
+        case 'f':
+            return skipLiteral("false");
+        case 'n':
+            return skipLiteral("null");
+        default:
+            readNumber();
+            return error == null;
+        }
+    }
+
+    /**
+     * Skips the string at the current position and returns the index of its closing quote, or -1 if
+     * the string is malformed.
+     */
+    private int skipString() {
+        if (!expectByte('"')) {
+            return -1;
+        }
+        while (position < limit) {
+            byte b = bytes[position++];
+            if (b == '"') {
+                return position - 1;
+            }
+            if (b == '\\') {
+                position++;
+            }
+        }
+        fail("Unterminated string");
+        return -1;
+    }
+
+    private String decodeString(int start, int end) {
+        String string = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        if (string.indexOf('\\') < 0) {
+            return string;
+        }
+        StringBuilder builder = new StringBuilder(string.length());
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c != '\\' || i + 1 >= string.length()) {
+                builder.append(c);
+                continue;
+            }
+            c = string.charAt(++i);
+            switch (c) {
+            case 'b':
+                builder.append('\b');
+                break;
+            case 'f':
+                builder.append('\f');
+                break;
+            case 'n':
+                builder.append('\n');
+                break;
+            case 'r':
+                builder.append('\r');
+                break;
+            case 't':
+                builder.append('\t');
+                break;
+            case 'u':
+                if (i + 4 < string.length()) {
+                    try {
+                        builder.append((char) Integer.parseInt(string.substring(i + 1, i + 5), 16));
+                        i += 4;
+                        break;
+                    } catch (NumberFormatException e) {
+                        // Keep the escape sequence as is
+                    }
+                }
+                builder.append('\\').append(c);
+                break;
+            default:
+                builder.append(c);
+                break;
+            }
+        }
+        return builder.toString();
+    }
+
+    private boolean skipLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (!expectByte((byte) literal.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (position < limit) {
+            byte b = bytes[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                break;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Returns the next byte after whitespace as unsigned value, or -1 at the end of the payload.
+     */
+    private int peek() {
+        skipWhitespace();
+        if (position >= limit) {
+            fail("Unexpected end of payload");
+            return -1;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    private int peekOrThrow() throws JsonParseException {
+        int next = peek();
+        check(next >= 0);
+        return next;
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < limit && bytes[position] == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean consumeByte(char c) {
+        if (position < limit && bytes[position] == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean expect(char c) {
+        skipWhitespace();
+        return expectByte((byte) c);
+    }
+
+    private boolean expectByte(byte b) {
+        if (position >= limit) {
+            return fail("Unexpected end of payload");
+        }
+        if (bytes[position] != b) {
+            return fail("Expected '" + (char) b + "'");
+        }
+        position++;
+        return true;
+    }
+
+    private boolean expectByte(char c) {
+        return expectByte((byte) c);
+    }
+
+    private boolean equals(int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (bytes[start + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Records the error at the current position, unless an earlier one was recorded already.
+     * 
+     * @return always false, to be returned by the failed operation
+     */
+    private boolean fail(String reason) {
+        if (error == null) {
+            error = reason;
+            errorPosition = position;
+        }
+        return false;
+    }
+
+    private void check(boolean success) throws JsonParseException {
+        if (!success || error != null) {
+            throw getError();
+        }
+    }
+
+}
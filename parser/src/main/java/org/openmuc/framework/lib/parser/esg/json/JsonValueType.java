@@ -43,6 +43,17 @@ public enum JsonValueType {
     }
 
     public static JsonValueType ofUnit(String unit) throws IllegalArgumentException {
+    	JsonValueType type = forUnit(unit);
+    	if (type == null) {
+    		throw new IllegalArgumentException("Unknown unit \"" + unit + "\"");
+    	}
+    	return type;
+    }
+
+    /**
+     * Returns the type of the unit, or null if the unit is unknown.
+     */
+    public static JsonValueType forUnit(String unit) {
     	switch (unit.toLowerCase()) {
     	case "kw":
     		return POWER;
@@ -51,7 +62,7 @@ public enum JsonValueType {
     	case "%":
     		return STIMULUS;
     	default:
-    		throw new IllegalArgumentException(String.format("Unknown unit \"%s\"", unit));
+    		return null;
     	}
     }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Writes values of the fixed <code>timestamp</code>, <code>value</code> and <code>unit</code> schema
+ * directly into a reusable, growing byte buffer, producing the same bytes as the Gson
+ * {@link JsonValue.JsonValueAdapter}.
+ * <p>
+ * The constant fragments of the schema are precomputed for every {@link JsonValueType}.
+ * A writer is not thread-safe, but may be reused for several payloads after being {@link #reset()}.
+ */
+public class JsonValueWriter implements PayloadBuffer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte[] TIMESTAMP_PREFIX = "{\"timestamp\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VALUE_PREFIX = "\",\"value\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNIT_PREFIX = ",\"unit\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNIT_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUFFIX = "}".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[][] TYPE_SUFFIXES = new byte[JsonValueType.values().length][];
+    static {
+        for (JsonValueType type : JsonValueType.values()) {
+            TYPE_SUFFIXES[type.ordinal()] = (",\"unit\":\"" + type.getUnit() + "\"}").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Integral values below this magnitude are formatted by {@link Double#toString(double)} without
+     * an exponent, so they can be written as digits directly.
+     */
+    private static final double PLAIN_INTEGRAL_LIMIT = 1e7;
+
+    private final StringBuilder builder = new StringBuilder(32);
+
+    private final JsonTimestampCodec timestamps = new JsonTimestampCodec();
+
+    private byte[] buffer;
+    private int size = 0;
+
+    private boolean array = false;
+    private int count = 0;
+
+    public JsonValueWriter() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public JsonValueWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void reset() {
+        size = 0;
+        array = false;
+        count = 0;
+    }
+
+    public void beginArray() {
+        write((byte) '[');
+        array = true;
+        count = 0;
+    }
+
+    public void endArray() {
+        write((byte) ']');
+        array = false;
+    }
+
+    public void writeValue(JsonValue value) {
+        writeValue(value.getTimestamp(), value.getValueAsDouble(), value.getUnit());
+    }
+
+    /**
+     * Writes a value without a unit.
+     */
+    public void writeValue(ZonedDateTime timestamp, double value) {
+        writeValuePrefix(timestamp, value);
+        write(SUFFIX);
+    }
+
+    /**
+     * Writes a value without a unit, at the epoch timestamp in milliseconds and its offset in seconds.
+     */
+    public void writeValue(long timestamp, int offset, double value) {
+        writeValuePrefix(timestamp, offset, value);
+        write(SUFFIX);
+    }
+
+    /**
+     * Writes a value with the unit of the given type, or without a unit if the type is null, at the
+     * epoch timestamp in milliseconds and its offset in seconds.
+     */
+    public void writeValue(long timestamp, int offset, double value, JsonValueType type) {
+        writeValuePrefix(timestamp, offset, value);
+        write(type != null ? TYPE_SUFFIXES[type.ordinal()] : SUFFIX);
+    }
+
+    /**
+     * Writes a value with the unit of the given type, or without a unit if the type is null.
+     */
+    public void writeValue(ZonedDateTime timestamp, double value, JsonValueType type) {
+        writeValuePrefix(timestamp, value);
+        write(type != null ? TYPE_SUFFIXES[type.ordinal()] : SUFFIX);
+    }
+
+    public void writeValue(ZonedDateTime timestamp, double value, String unit) {
+        writeValuePrefix(timestamp, value);
+        if (unit == null || unit.isEmpty()) {
+            write(SUFFIX);
+            return;
+        }
+        write(UNIT_PREFIX);
+        writeEscaped(unit);
+        write(UNIT_SUFFIX);
+    }
+
+    private void writeValuePrefix(ZonedDateTime timestamp, double value) {
+        writeTimestampPrefix();
+        ensureCapacity(JsonTimestampCodec.MAX_LENGTH);
+        size = timestamps.format(timestamp, buffer, size);
+        write(VALUE_PREFIX);
+        writeNumber(value);
+    }
+
+    private void writeValuePrefix(long timestamp, int offset, double value) {
+        writeTimestampPrefix();
+        ensureCapacity(JsonTimestampCodec.MAX_LENGTH);
+        size = timestamps.format(timestamp, offset, buffer, size);
+        write(VALUE_PREFIX);
+        writeNumber(value);
+    }
+
+    private void writeTimestampPrefix() {
+        if (array && count++ > 0) {
+            write((byte) ',');
+        }
+        write(TIMESTAMP_PREFIX);
+    }
+
+    /**
+     * Writes a number like {@link Double#toString(double)}, as Gson does. Like the lenient Gson writer,
+     * NaN and infinities are written as the literals <code>NaN</code>, <code>Infinity</code> and
+     * <code>-Infinity</code>.
+     */
+    private void writeNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < PLAIN_INTEGRAL_LIMIT &&
+                !(value == 0 && Double.doubleToRawLongBits(value) != 0)) {
+            long integral = (long) value;
+            if (integral < 0) {
+                write((byte) '-');
+                integral = -integral;
+            }
+            writeDigits(integral);
+            write((byte) '.');
+            write((byte) '0');
+            return;
+        }
+        builder.setLength(0);
+        builder.append(value);
+        writeAscii(builder);
+    }
+
+    private void writeDigits(long value) {
+        int digits = 1;
+        for (long limit = 10; value >= limit && digits < 19; limit *= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        int position = size + digits;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        size += digits;
+    }
+
+    private void writeEscaped(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c == '"' || c == '\\') {
+                write((byte) '\\');
+                write((byte) c);
+            }
+            else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                switch (c) {
+                case '\t':
+                    write((byte) '\\');
+                    write((byte) 't');
+                    break;
+                case '\b':
+                    write((byte) '\\');
+                    write((byte) 'b');
+                    break;
+                case '\n':
+                    write((byte) '\\');
+                    write((byte) 'n');
+                    break;
+                case '\r':
+                    write((byte) '\\');
+                    write((byte) 'r');
+                    break;
+                case '\f':
+                    write((byte) '\\');
+                    write((byte) 'f');
+                    break;
+                default:
+                    write((byte) '\\');
+                    write((byte) 'u');
+                    write(HEX[(c >> 12) & 0xF]);
+                    write(HEX[(c >> 8) & 0xF]);
+                    write(HEX[(c >> 4) & 0xF]);
+                    write(HEX[c & 0xF]);
+                    break;
+                }
+            }
+            else if (c < 0x80) {
+                write((byte) c);
+            }
+            else {
+                int end = i + 1;
+                while (end < string.length() && string.charAt(end) >= 0x80 &&
+                        string.charAt(end) != '\u2028' && string.charAt(end) != '\u2029') {
+                    end++;
+                }
+                write(string.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                i = end - 1;
+            }
+        }
+    }
+
+    private void writeAscii(CharSequence sequence) {
+        int length = sequence.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) sequence.charAt(i);
+        }
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Writes a value that was already encoded on its own, for example by another writer. Inside an
+     * array, the value is separated from its predecessor like any other value.
+     */
+    public void writeEncoded(byte[] value) {
+        if (array && count++ > 0) {
+            write((byte) ',');
+        }
+        write(value);
+    }
+
+    private void write(byte b) {
+        ensureCapacity(1);
+        buffer[size++] = b;
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2*buffer.length, size + length));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer target) throws BufferOverflowException {
+        target.put(buffer, 0, size);
+    }
+
+    @Override
+    public void writeTo(OutputStream stream) throws IOException {
+        stream.write(buffer, 0, size);
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoded payload, held in the reusable buffer of a writer. The payload may be copied into a new
+ * array, or directly into a caller-supplied buffer or stream, until the writer is reused.
+ */
+public interface PayloadBuffer {
+
+    int size();
+
+    byte[] toByteArray();
+
+    /**
+     * Writes the payload at the current position of the buffer. Nothing is written if the payload
+     * exceeds the remaining space of the buffer.
+     */
+    void writeTo(ByteBuffer buffer) throws BufferOverflowException;
+
+    void writeTo(OutputStream stream) throws IOException;
+
+}
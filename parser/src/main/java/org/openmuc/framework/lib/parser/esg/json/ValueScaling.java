@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.json;
+
+/**
+ * Scaling of ranges of series values, shared by the series of the parser.
+ */
+public final class ValueScaling {
+
+    private ValueScaling() {
+    }
+
+    /**
+     * Multiplies the values of a range in place with the factor.
+     */
+    public static void scale(double[] values, int offset, int length, double factor) {
+        checkRange(values, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    /**
+     * Copies the values of a range divided by the divisor, like the scaling of a {@link JsonValueType}
+     * is reverted when a value is decoded.
+     */
+    public static void divide(double[] source, int sourceOffset, double[] target, int targetOffset, int length,
+            double divisor) {
+        checkRange(source, sourceOffset, length);
+        checkRange(target, targetOffset, length);
+        for (int i = 0; i < length; i++) {
+            target[targetOffset + i] = source[sourceOffset + i] / divisor;
+        }
+    }
+
+    private static void checkRange(double[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > values.length) {
+            throw new IndexOutOfBoundsException("Range " + offset + " to " + (offset + length) + 
+                    " exceeds length " + values.length);
+        }
+    }
+
+}
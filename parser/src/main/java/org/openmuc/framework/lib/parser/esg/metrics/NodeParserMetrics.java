@@ -0,0 +1,314 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+
+/**
+ * Metrics of a parser: operation counts, latencies and payload bytes, as well as error rates per
+ * {@link JsonValueType} and per topic.
+ * <p>
+ * All counters are striped and the histograms lock-free, so recording is cheap enough to stay
+ * enabled under load. The number of tracked topics is bounded; operations on further topics are
+ * accounted to the {@link #OTHER_TOPICS} entry.
+ */
+public class NodeParserMetrics implements NodeParserMetricsMXBean {
+
+    public static final String OTHER_TOPICS = "*";
+
+    static final int MAX_TOPICS = 1024;
+
+    private static final JsonValueType[] TYPES = JsonValueType.values();
+
+    private final LatencyHistogram serializeLatency = new LatencyHistogram();
+    private final LongAdder serializeErrors = new LongAdder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder serializeUnchanged = new LongAdder();
+
+    private final LatencyHistogram deserializeLatency = new LatencyHistogram();
+    private final LongAdder deserializeErrors = new LongAdder();
+    private final LongAdder deserializedBytes = new LongAdder();
+
+    private final LongAdder decodingFailed = new LongAdder();
+    private final LongAdder temporarilyNotAccessible = new LongAdder();
+
+    private final LongAdder logSuppressed = new LongAdder();
+
+    /**
+     * Operation and error counts per type, with the last index counting topics of unknown type.
+     */
+    private final LongAdder[] typeCounts = newAdders(TYPES.length + 1);
+    private final LongAdder[] typeErrors = newAdders(TYPES.length + 1);
+
+    private final ConcurrentMap<String, TopicMetrics> topics = new ConcurrentHashMap<>();
+
+    public void recordSerialized(String topic, JsonValueType type, int bytes, long nanos) {
+        serializeLatency.record(nanos);
+        serializedBytes.add(bytes);
+        typeCounts[indexOf(type)].increment();
+        
+        TopicMetrics metrics = getOrCreateTopic(topic);
+        metrics.serializeCount.increment();
+        metrics.bytes.add(bytes);
+    }
+
+    /**
+     * Records a serialization, that returned the memorized payload of unchanged values.
+     */
+    public void recordUnchanged(String topic, JsonValueType type, int bytes, long nanos) {
+        recordSerialized(topic, type, bytes, nanos);
+        serializeUnchanged.increment();
+    }
+
+    public void recordSerializeFailed(String topic, JsonValueType type, long nanos) {
+        serializeLatency.record(nanos);
+        serializeErrors.increment();
+        typeCounts[indexOf(type)].increment();
+        typeErrors[indexOf(type)].increment();
+        
+        TopicMetrics metrics = getOrCreateTopic(topic);
+        metrics.serializeCount.increment();
+        metrics.serializeErrors.increment();
+    }
+
+    public void recordDeserialized(String topic, JsonValueType type, int bytes, long nanos, Flag flag) {
+        deserializeLatency.record(nanos);
+        deserializedBytes.add(bytes);
+        typeCounts[indexOf(type)].increment();
+        
+        TopicMetrics metrics = getOrCreateTopic(topic);
+        metrics.deserializeCount.increment();
+        metrics.bytes.add(bytes);
+        
+        if (flag != Flag.VALID) {
+            if (flag == Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED) {
+                decodingFailed.increment();
+            }
+            else if (flag == Flag.DRIVER_ERROR_CHANNEL_TEMPORARILY_NOT_ACCESSIBLE) {
+                temporarilyNotAccessible.increment();
+            }
+            deserializeErrors.increment();
+            typeErrors[indexOf(type)].increment();
+            metrics.deserializeErrors.increment();
+        }
+    }
+
+    /**
+     * Records a diagnostic message, that was suppressed to limit the logged messages of a topic.
+     */
+    public void recordLogSuppressed() {
+        logSuppressed.increment();
+    }
+
+    private TopicMetrics getOrCreateTopic(String topic) {
+        TopicMetrics metrics = topics.get(topic);
+        if (metrics == null) {
+            if (topics.size() >= MAX_TOPICS) {
+                topic = OTHER_TOPICS;
+            }
+            metrics = topics.computeIfAbsent(topic, TopicMetrics::new);
+        }
+        return metrics;
+    }
+
+    public LatencyHistogram getSerializeLatency() {
+        return serializeLatency;
+    }
+
+    public LatencyHistogram getDeserializeLatency() {
+        return deserializeLatency;
+    }
+
+    public TopicMetrics getTopic(String topic) {
+        return topics.get(topic);
+    }
+
+    public Collection<TopicMetrics> getTopics() {
+        return Collections.unmodifiableCollection(topics.values());
+    }
+
+    public long getCount(JsonValueType type) {
+        return typeCounts[indexOf(type)].sum();
+    }
+
+    public long getErrors(JsonValueType type) {
+        return typeErrors[indexOf(type)].sum();
+    }
+
+    /**
+     * Returns the ratio of failed operations to all operations of the given type, or of topics with
+     * unknown type, if the type is null.
+     */
+    public double getErrorRate(JsonValueType type) {
+        long count = getCount(type);
+        return count > 0 ? (double) getErrors(type)/count : 0;
+    }
+
+    @Override
+    public long getSerializeCount() {
+        return serializeLatency.getCount();
+    }
+
+    @Override
+    public long getSerializeErrors() {
+        return serializeErrors.sum();
+    }
+
+    @Override
+    public long getSerializedBytes() {
+        return serializedBytes.sum();
+    }
+
+    @Override
+    public long getSerializeUnchangedCount() {
+        return serializeUnchanged.sum();
+    }
+
+    @Override
+    public double getSerializeLatencyMean() {
+        return serializeLatency.getMean();
+    }
+
+    @Override
+    public long getSerializeLatencyMedian() {
+        return serializeLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getSerializeLatency99thPercentile() {
+        return serializeLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getSerializeLatencyMax() {
+        return serializeLatency.getMax();
+    }
+
+    @Override
+    public long getDeserializeCount() {
+        return deserializeLatency.getCount();
+    }
+
+    @Override
+    public long getDeserializeErrors() {
+        return deserializeErrors.sum();
+    }
+
+    @Override
+    public long getDeserializedBytes() {
+        return deserializedBytes.sum();
+    }
+
+    @Override
+    public double getDeserializeLatencyMean() {
+        return deserializeLatency.getMean();
+    }
+
+    @Override
+    public long getDeserializeLatencyMedian() {
+        return deserializeLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getDeserializeLatency99thPercentile() {
+        return deserializeLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getDeserializeLatencyMax() {
+        return deserializeLatency.getMax();
+    }
+
+    @Override
+    public long getDecodingFailedCount() {
+        return decodingFailed.sum();
+    }
+
+    @Override
+    public long getTemporarilyNotAccessibleCount() {
+        return temporarilyNotAccessible.sum();
+    }
+
+    @Override
+    public long getLogSuppressedCount() {
+        return logSuppressed.sum();
+    }
+
+    @Override
+    public Map<String, Double> getTypeErrorRates() {
+        Map<String, Double> rates = new LinkedHashMap<String, Double>();
+        for (JsonValueType type : TYPES) {
+            rates.put(type.name(), getErrorRate(type));
+        }
+        rates.put("UNKNOWN", getErrorRate(null));
+        return rates;
+    }
+
+    @Override
+    public Map<String, Double> getTopicErrorRates() {
+        Map<String, Double> rates = new LinkedHashMap<String, Double>();
+        for (TopicMetrics topic : topics.values()) {
+            rates.put(topic.getTopic(), topic.getErrorRate());
+        }
+        return rates;
+    }
+
+    @Override
+    public void reset() {
+        serializeLatency.reset();
+        serializeErrors.reset();
+        serializedBytes.reset();
+        serializeUnchanged.reset();
+        deserializeLatency.reset();
+        deserializeErrors.reset();
+        deserializedBytes.reset();
+        decodingFailed.reset();
+        temporarilyNotAccessible.reset();
+        logSuppressed.reset();
+        for (int i = 0; i < typeCounts.length; i++) {
+            typeCounts[i].reset();
+            typeErrors[i].reset();
+        }
+        topics.clear();
+    }
+
+    private static int indexOf(JsonValueType type) {
+        return type != null ? type.ordinal() : TYPES.length;
+    }
+
+    private static LongAdder[] newAdders(int length) {
+        LongAdder[] adders = new LongAdder[length];
+        for (int i = 0; i < length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@link NodeParserMetrics}, to expose them over JMX.
+ * Latencies are reported in nanoseconds.
+ */
+public interface NodeParserMetricsMXBean {
+
+    long getSerializeCount();
+
+    long getSerializeErrors();
+
+    long getSerializedBytes();
+
+    long getSerializeUnchangedCount();
+
+    double getSerializeLatencyMean();
+
+    long getSerializeLatencyMedian();
+
+    long getSerializeLatency99thPercentile();
+
+    long getSerializeLatencyMax();
+
+    long getDeserializeCount();
+
+    long getDeserializeErrors();
+
+    long getDeserializedBytes();
+
+    double getDeserializeLatencyMean();
+
+    long getDeserializeLatencyMedian();
+
+    long getDeserializeLatency99thPercentile();
+
+    long getDeserializeLatencyMax();
+
+    long getDecodingFailedCount();
+
+    long getTemporarilyNotAccessibleCount();
+
+    long getLogSuppressedCount();
+
+    Map<String, Double> getTypeErrorRates();
+
+    Map<String, Double> getTopicErrorRates();
+
+    void reset();
+
+}
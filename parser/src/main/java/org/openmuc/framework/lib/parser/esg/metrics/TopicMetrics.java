@@ -0,0 +1,79 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped counters of the parser operations on a single topic.
+ */
+public class TopicMetrics {
+
+    private final String topic;
+
+    final LongAdder serializeCount = new LongAdder();
+    final LongAdder serializeErrors = new LongAdder();
+
+    final LongAdder deserializeCount = new LongAdder();
+    final LongAdder deserializeErrors = new LongAdder();
+
+    final LongAdder bytes = new LongAdder();
+
+    TopicMetrics(String topic) {
+        this.topic = topic;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public long getSerializeCount() {
+        return serializeCount.sum();
+    }
+
+    public long getSerializeErrors() {
+        return serializeErrors.sum();
+    }
+
+    public long getDeserializeCount() {
+        return deserializeCount.sum();
+    }
+
+    public long getDeserializeErrors() {
+        return deserializeErrors.sum();
+    }
+
+    /**
+     * Returns the sum of serialized and deserialized payload bytes.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Returns the ratio of failed operations to all operations on this topic.
+     */
+    public double getErrorRate() {
+        long count = getSerializeCount() + getDeserializeCount();
+        return count > 0 ? (double) (getSerializeErrors() + getDeserializeErrors())/count : 0;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserContainer;
+import org.openmuc.framework.parser.spi.SerializationContainer;
+
+
+public class ChannelDescriptorCacheTest {
+
+	private static final String TOPIC = "esg/node/stimulus/forecast";
+
+	@Test
+	public void testHit() {
+		ChannelDescriptor.Cache cache = new ChannelDescriptor.Cache(4);
+		ChannelDescriptor channel = cache.get(new NodeParserContainer(TOPIC, "hour=5"));
+		assertEquals(TOPIC, channel.getTopic());
+		assertEquals(JsonValueType.STIMULUS, channel.getType());
+		assertTrue(channel.isForecast());
+		assertTrue(channel.hasHour());
+		
+		// Equal addresses and settings of separate containers share the descriptor
+		assertSame(channel, cache.get(new NodeParserContainer(new String(TOPIC), "hour=" + 5)));
+		assertNotSame(channel, cache.get(new NodeParserContainer(TOPIC, "hour=6")));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testLoggingSettings() {
+		ChannelDescriptor.Cache cache = new ChannelDescriptor.Cache(4);
+		NodeParserContainer container = new NodeParserContainer(TOPIC, "hour=5");
+		ChannelDescriptor logging = cache.get((LoggingRecord) container);
+		ChannelDescriptor address = cache.get((SerializationContainer) container);
+		
+		// Descriptors of logging settings and channel addresses are kept apart
+		assertNotSame(logging, address);
+		assertEquals(logging.getTopic(), address.getTopic());
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testMisconfigured() {
+		ChannelDescriptor.Cache cache = new ChannelDescriptor.Cache(4);
+		ChannelDescriptor channel = cache.get(new NodeParserContainer(TOPIC, "hour=5;minute=75"));
+		assertNotNull(channel.getError());
+		assertFalse(channel.hasHour());
+		assertSame(channel, cache.get(new NodeParserContainer(TOPIC, "hour=5;minute=75")));
+		
+		assertNull(cache.get(new NodeParserContainer("esg/node/power", "")).getError());
+	}
+
+	@Test
+	public void testCapacity() {
+		ChannelDescriptor.Cache cache = new ChannelDescriptor.Cache(4);
+		ChannelDescriptor first = cache.get(new NodeParserContainer(TOPIC, "hour=0"));
+		for (int hour = 1; hour < 4; hour++) {
+			cache.get(new NodeParserContainer(TOPIC, "hour=" + hour));
+		}
+		assertEquals(4, cache.size());
+		assertSame(first, cache.get(new NodeParserContainer(TOPIC, "hour=0")));
+		
+		// The cache is cleared entirely once full
+		cache.get(new NodeParserContainer(TOPIC, "hour=4"));
+		assertEquals(1, cache.size());
+		assertNotSame(first, cache.get(new NodeParserContainer(TOPIC, "hour=0")));
+		assertEquals(2, cache.size());
+	}
+
+}
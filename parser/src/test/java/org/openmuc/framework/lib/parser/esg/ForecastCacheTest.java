@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+import com.google.gson.JsonParseException;
+
+
+public class ForecastCacheTest {
+
+	private static final String TOPIC = "esg/node/stimulus/forecast";
+
+	private long now = 0;
+
+	private int decoded = 0;
+
+	private JsonValueList decode(byte[] payload) throws JsonParseException {
+		decoded++;
+		if (payload.length == 0 || payload[0] != '[') {
+			throw new JsonParseException("Malformed payload");
+		}
+		return new JsonValueList(0);
+	}
+
+	@Test
+	public void testEqualPayload() {
+		ForecastCache cache = new ForecastCache(4, ForecastCache.DEFAULT_EXPIRY, () -> now);
+		JsonValueList series = cache.get(TOPIC, payload("[1]"), this::decode);
+		assertSame(series, cache.get(TOPIC, payload("[1]"), this::decode));
+		assertEquals(1, decoded);
+		
+		// Equal payloads of other topics are separate entries
+		cache.get("esg/node/power/forecast", payload("[1]"), this::decode);
+		assertEquals(2, decoded);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testCachedPayloadCopy() {
+		ForecastCache cache = new ForecastCache(4, ForecastCache.DEFAULT_EXPIRY, () -> now);
+		byte[] payload = payload("[1]");
+		JsonValueList series = cache.get(TOPIC, payload, this::decode);
+		
+		// Payload arrays of the caller may be reused, without affecting the cached entry
+		payload[1] = '2';
+		assertSame(series, cache.get(TOPIC, payload("[1]"), this::decode));
+		assertEquals(1, decoded);
+	}
+
+	@Test
+	public void testMalformed() {
+		ForecastCache cache = new ForecastCache(4, ForecastCache.DEFAULT_EXPIRY, () -> now);
+		assertNull(cache.get(TOPIC, payload("{"), this::decode));
+		assertNull(cache.get(TOPIC, payload("{"), this::decode));
+		assertEquals(1, decoded);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testExpiry() {
+		ForecastCache cache = new ForecastCache(4, ForecastCache.DEFAULT_EXPIRY, () -> now);
+		JsonValueList series = cache.get(TOPIC, payload("[1]"), this::decode);
+		cache.get(TOPIC, payload("{"), this::decode);
+		
+		now += TimeUnit.MINUTES.toNanos(15) - 1;
+		assertSame(series, cache.get(TOPIC, payload("[1]"), this::decode));
+		assertNull(cache.get(TOPIC, payload("{"), this::decode));
+		assertEquals(2, decoded);
+		
+		now += 1;
+		JsonValueList expired = cache.get(TOPIC, payload("[1]"), this::decode);
+		assertEquals(3, decoded);
+		assertSame(expired, cache.get(TOPIC, payload("[1]"), this::decode));
+		assertNull(cache.get(TOPIC, payload("{"), this::decode));
+		assertEquals(4, decoded);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testEviction() {
+		ForecastCache cache = new ForecastCache(2, ForecastCache.DEFAULT_EXPIRY, () -> now);
+		cache.get(TOPIC, payload("[1]"), this::decode);
+		now++;
+		JsonValueList second = cache.get(TOPIC, payload("[2]"), this::decode);
+		now++;
+		JsonValueList third = cache.get(TOPIC, payload("[3]"), this::decode);
+		assertEquals(2, cache.size());
+		assertEquals(3, decoded);
+		
+		// Only the oldest entry was evicted
+		assertSame(second, cache.get(TOPIC, payload("[2]"), this::decode));
+		assertSame(third, cache.get(TOPIC, payload("[3]"), this::decode));
+		assertEquals(3, decoded);
+		
+		now++;
+		cache.get(TOPIC, payload("[1]"), this::decode);
+		assertEquals(4, decoded);
+		assertEquals(2, cache.size());
+		assertSame(third, cache.get(TOPIC, payload("[3]"), this::decode));
+		assertEquals(4, decoded);
+	}
+
+	private static byte[] payload(String payload) {
+		return payload.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
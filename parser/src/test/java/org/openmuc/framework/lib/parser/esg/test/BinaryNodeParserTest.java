@@ -0,0 +1,275 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.clock;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.forecast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryConverter;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryParseException;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryValueReader;
+import org.openmuc.framework.lib.parser.esg.binary.BinaryValueWriter;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class BinaryNodeParserTest {
+
+	private final NodeParser jsonParser = new NodeParser();
+	private final NodeParser binaryParser = new BinaryNodeParser();
+
+	@Test
+	public void testValue() {
+		BinaryValueWriter writer = new BinaryValueWriter(4);
+		long[] timestamps = { 1704067200000L, 1704067200123L, -1L, 0L, Long.MAX_VALUE };
+		double[] values = { 100000., -0., Double.NaN, Double.MIN_VALUE, -1e300 };
+		for (int i = 0; i < timestamps.length; i++) {
+			JsonValueType type = i < JsonValueType.values().length ? JsonValueType.values()[i] : null;
+			writer.reset();
+			writer.writeValue(timestamps[i], 3600*(i - 2), values[i], type);
+			
+			BinaryValueReader reader = new BinaryValueReader(writer.toByteArray());
+			reader.readValue();
+			reader.end();
+			assertEquals(timestamps[i], reader.getEpochMilli());
+			assertEquals(3600*(i - 2), reader.getOffset());
+			assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(reader.getValue()));
+			assertEquals(type, reader.getType());
+		}
+	}
+
+	@Test
+	public void testSeries() {
+		JsonValueList series = new JsonValueList();
+		for (int i = 0; i < 96; i++) {
+			series.add(1704067200000L + (i % 2 == 0 ? i : 96 - i)*900000L, i/7.);
+		}
+		BinaryValueWriter writer = new BinaryValueWriter();
+		writer.writeSeries(series, JsonValueType.STIMULUS);
+		
+		BinaryValueReader reader = new BinaryValueReader(writer.toByteArray());
+		JsonValueList result = reader.readSeries();
+		reader.end();
+		assertEquals(series.size(), result.size());
+		for (int i = 0; i < series.size(); i++) {
+			assertEquals(series.getTimestamp(i), result.getTimestamp(i));
+			assertEquals(series.getValue(i), result.getValue(i));
+		}
+		assertEquals(JsonValueType.STIMULUS.getUnit(), result.getUnit());
+	}
+
+	@Test
+	public void testDeltaSeries() {
+		Random random = new Random(42);
+		BinaryValueWriter writer = new BinaryValueWriter();
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		Inflater inflater = new Inflater(true);
+		for (int i = 0; i < 100; i++) {
+			JsonValueList series = new JsonValueList();
+			boolean regular = i % 2 == 0;
+			long timestamp = 1704067200000L + (i % 3 == 0 ? random.nextInt(1000) : 0);
+			for (int j = 0; j < random.nextInt(700); j++) {
+				timestamp += regular ? 900000L : random.nextInt(3600000) - 60000;
+				double value;
+				switch (i % 4) {
+				case 0:
+					value = random.nextInt(1000)/100.;
+					break;
+				case 1:
+					value = Math.round(random.nextGaussian()*1e6);
+					break;
+				case 2:
+					value = random.nextGaussian();
+					break;
+				default:
+					value = j % 7 == 0 ? Double.MAX_VALUE : -0.;
+				}
+				series.add(timestamp, value);
+			}
+			writer.reset();
+			writer.writeDeltaSeries(series, null, i % 5 == 0 ? null : deflater);
+			
+			BinaryValueReader reader = new BinaryValueReader(writer.toByteArray(), inflater);
+			assertTrue(reader.isDelta());
+			JsonValueList result = reader.readSeries();
+			reader.end();
+			assertEquals(series.size(), result.size());
+			for (int j = 0; j < series.size(); j++) {
+				assertEquals(series.getTimestamp(j), result.getTimestamp(j));
+				assertEquals(Double.doubleToRawLongBits(series.getValue(j)), Double.doubleToRawLongBits(result.getValue(j)));
+			}
+			
+			BinaryValueWriter plain = new BinaryValueWriter();
+			plain.writeSeries(series, null);
+			assertArrayEquals(BinaryConverter.toJson(plain.toByteArray()), BinaryConverter.toJson(writer.toByteArray()));
+		}
+		deflater.end();
+		inflater.end();
+	}
+
+	@Test
+	public void testDeltaForecast() throws SerializationException {
+		NodeParserOptions options = NodeParserOptions.DEFAULT.withSeriesEncoding(SeriesEncoding.DELTA);
+		NodeParser deltaParser = new NodeParser(options);
+		NodeParser deflateParser = new NodeParser(options.withSeriesCompression(true));
+		
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour, hour/100.));
+		}
+		byte[] json = jsonParser.serialize(containers);
+		byte[] delta = deltaParser.serialize(containers);
+		byte[] deflated = deflateParser.serialize(containers);
+		assertTrue(delta.length*10 < json.length, "Delta forecast of " + delta.length + " bytes is not compact");
+		assertTrue(deflated.length <= delta.length);
+		
+		for (int hour = 0; hour < 24; hour++) {
+			NodeParserContainer container = new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour);
+			Record expected = jsonParser.deserialize(json, container);
+			for (Record result : new Record[] { jsonParser.deserialize(delta, container),
+					jsonParser.deserialize(deflated, container), binaryParser.deserialize(deflated, container) }) {
+				assertEquals(expected.getFlag(), result.getFlag());
+				if (expected.getFlag() == Flag.VALID) {
+					assertEquals(expected.getValue().asDouble(), result.getValue().asDouble());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMalformed() {
+		BinaryValueWriter writer = new BinaryValueWriter();
+		writer.writeValue(1704067200000L, 0, 1., JsonValueType.POWER);
+		byte[] bytes = writer.toByteArray();
+		for (int length = 0; length < bytes.length; length++) {
+			byte[] truncated = Arrays.copyOf(bytes, length);
+			assertThrows(BinaryParseException.class, () -> new BinaryValueReader(truncated).readValue());
+		}
+		byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+		BinaryValueReader reader = new BinaryValueReader(trailing);
+		reader.readValue();
+		assertThrows(BinaryParseException.class, () -> reader.end());
+		
+		byte[] series = { BinaryValueWriter.MAGIC, 0x01, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F };
+		assertThrows(BinaryParseException.class, () -> new BinaryValueReader(series).readSeries());
+		byte[] deflated = { BinaryValueWriter.MAGIC, 0x0D, 0x7E, 0x01, 0x02, 0x03 };
+		assertThrows(BinaryParseException.class, () -> new BinaryValueReader(deflated).readSeries());
+		byte[] inflated = { BinaryValueWriter.MAGIC, 0x0D, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, 0x7F };
+		assertThrows(BinaryParseException.class, () -> new BinaryValueReader(inflated).readSeries());
+		assertThrows(BinaryParseException.class, () -> new BinaryValueReader("{}".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void testConverter() throws IOException {
+		byte[] power = NodeParserTest.class.getResourceAsStream("power.json").readAllBytes();
+		byte[] binary = BinaryConverter.toBinary(power);
+		assertArrayEquals(new String(power, StandardCharsets.UTF_8).trim().getBytes(StandardCharsets.UTF_8),
+				BinaryConverter.toJson(binary));
+		
+		JsonValueList series = new JsonValueList();
+		for (int i = 0; i < 24; i++) {
+			series.add(1704067200000L + i*3600000L, i/100.);
+		}
+		BinaryValueWriter writer = new BinaryValueWriter();
+		writer.writeSeries(series, null);
+		byte[] json = BinaryConverter.toJson(writer.toByteArray());
+		assertArrayEquals(writer.toByteArray(), BinaryConverter.toBinary(json));
+	}
+
+	@Test
+	public void testConverterForecast() throws SerializationException {
+		NodeParserOptions options = NodeParserOptions.DEFAULT.withClock(clock(2024, 1, 15, 10, 30));
+		NodeParser jsonForecastParser = new NodeParser(options);
+		NodeParser binaryForecastParser = new BinaryNodeParser(options);
+		
+		byte[] json = jsonForecastParser.serialize(forecast());
+		assertArrayEquals(json, BinaryConverter.toJson(BinaryConverter.toBinary(json)));
+		
+		// Series of the binary parser carry their type, but convert to the unit-less series of the JSON parser
+		byte[] binary = binaryForecastParser.serialize(forecast());
+		assertArrayEquals(json, BinaryConverter.toJson(binary));
+		assertEquals(-1, new String(BinaryConverter.toJson(binary), StandardCharsets.UTF_8).indexOf("unit"));
+	}
+
+	@Test
+	public void testParser() throws SerializationException {
+		NodeParserContainer power = new NodeParserContainer("esg/node/power");
+		Record record = new Record(new DoubleValue(1234.5), 1704067200000L);
+		
+		byte[] json = jsonParser.serialize(record, power);
+		byte[] binary = binaryParser.serialize(record, power);
+		assertArrayEquals(binary, BinaryConverter.toBinary(json));
+		
+		Record result = binaryParser.deserialize(binary, power);
+		assertEquals(Flag.VALID, result.getFlag());
+		assertEquals(1234.5, result.getValue().asDouble());
+		assertEquals(record.getTimestamp(), result.getTimestamp());
+		
+		assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, binaryParser.deserialize(json, power).getFlag());
+		assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED,
+				binaryParser.deserialize(binary, new NodeParserContainer("esg/node/energy")).getFlag());
+	}
+
+	@Test
+	public void testForecast() throws SerializationException {
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour, hour/100.));
+		}
+		byte[] json = jsonParser.serialize(containers);
+		byte[] binary = binaryParser.serialize(containers);
+		assertTrue(binary.length*4 < json.length, "Binary forecast of " + binary.length + " bytes is not compact");
+		
+		for (int hour = 0; hour < 24; hour++) {
+			NodeParserContainer container = new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour);
+			Record expected = jsonParser.deserialize(json, container);
+			Record result = binaryParser.deserialize(binary, container);
+			assertEquals(expected.getFlag(), result.getFlag());
+			if (expected.getFlag() == Flag.VALID) {
+				assertEquals(expected.getValue().asDouble(), result.getValue().asDouble());
+			}
+		}
+	}
+
+}
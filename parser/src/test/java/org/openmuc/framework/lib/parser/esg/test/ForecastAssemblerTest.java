@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.BERLIN;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.FORECAST_TOPIC;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.epochMilli;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.forecast;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.read;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.ForecastAssembler;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.TestClock;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class ForecastAssemblerTest {
+
+	private static final String TOPIC = FORECAST_TOPIC;
+
+	@Test
+	public void testSerialize() throws SerializationException {
+		NodeParserOptions delta = NodeParserOptions.DEFAULT.withSeriesEncoding(SeriesEncoding.DELTA);
+		for (NodeParser parser : new NodeParser[] { new NodeParser(), new BinaryNodeParser(), new NodeParser(delta) }) {
+			ForecastAssembler assembler = new ForecastAssembler(parser);
+			List<LoggingRecord> containers = forecast(0);
+			for (int hour = 23; hour >= 0; hour--) {
+				assertTrue(assembler.update(containers.get(hour)));
+			}
+			assertArrayEquals(parser.serialize(containers), assembler.serialize(TOPIC));
+			
+			containers.set(5, new NodeParserContainer(TOPIC, "hour=5", .42));
+			assertTrue(assembler.update(containers.get(5)));
+			assertFalse(assembler.update(containers.get(5)));
+			assertArrayEquals(parser.serialize(containers), assembler.serialize(TOPIC));
+		}
+	}
+
+	@Test
+	public void testSerializeChanges() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		ForecastAssembler assembler = new ForecastAssembler(parser);
+		for (LoggingRecord container : forecast(0)) {
+			assembler.update(container);
+		}
+		assertEquals(24, read(assembler.serializeChanges(TOPIC)).size());
+		assertEquals(0, read(assembler.serializeChanges(TOPIC)).size());
+		
+		List<LoggingRecord> changes = new ArrayList<LoggingRecord>();
+		changes.add(new NodeParserContainer(TOPIC, "hour=3", .5));
+		changes.add(new NodeParserContainer(TOPIC, "hour=17", .25));
+		for (LoggingRecord container : changes) {
+			assembler.update(container);
+		}
+		assertArrayEquals(parser.serialize(changes), assembler.serializeChanges(TOPIC));
+		assertEquals(24, read(assembler.serialize(TOPIC)).size());
+	}
+
+	@Test
+	public void testDayBoundary() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 1, 15, 10, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		ForecastAssembler assembler = new ForecastAssembler(parser);
+		for (LoggingRecord container : forecast(0)) {
+			assertTrue(assembler.update(container));
+		}
+		JsonValueList series = read(assembler.serialize(TOPIC));
+		assertEquals(24, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 10), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 16, 9), series.getTimestamp(23));
+		
+		// After midnight, only the hours updated for the new day remain
+		clock.set(ZonedDateTime.of(LocalDateTime.of(2024, 1, 16, 0, 30), BERLIN));
+		series = read(assembler.serialize(TOPIC));
+		assertEquals(10, series.size());
+		for (int hour = 0; hour < 10; hour++) {
+			assertEquals(epochMilli(2024, 1, 16, hour), series.getTimestamp(hour));
+		}
+		assertTrue(assembler.update(new NodeParserContainer(TOPIC, "hour=12", .5)));
+		assertEquals(1, read(assembler.serializeChanges(TOPIC)).size());
+		
+		// An unchanged value for the next occurrence of an hour is an update as well
+		clock.set(ZonedDateTime.of(LocalDateTime.of(2024, 1, 16, 10, 30), BERLIN));
+		assertTrue(assembler.update(new NodeParserContainer(TOPIC, "hour=5", .05)));
+		
+		clock.set(ZonedDateTime.of(LocalDateTime.of(2024, 1, 17, 0, 30), BERLIN));
+		series = read(assembler.serialize(TOPIC));
+		assertEquals(1, series.size());
+		assertEquals(epochMilli(2024, 1, 17, 5), series.getTimestamp(0));
+		assertEquals(0, read(assembler.serializeChanges(TOPIC)).size());
+	}
+
+	@Test
+	public void testMinute() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 1, 15, 10, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		ForecastAssembler assembler = new ForecastAssembler(parser);
+		
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		containers.add(new NodeParserContainer(TOPIC, "hour=12;minute=30", .5));
+		containers.add(new NodeParserContainer(TOPIC, "hour=13;minute=45", .25));
+		for (LoggingRecord container : containers) {
+			assertTrue(assembler.update(container));
+		}
+		assertArrayEquals(parser.serialize(containers), assembler.serialize(TOPIC));
+		
+		// Minutes within the same hour share the hourly slot
+		assertTrue(assembler.update(new NodeParserContainer(TOPIC, "hour=12;minute=0", .75)));
+		JsonValueList series = read(assembler.serialize(TOPIC));
+		assertEquals(2, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 12), series.getTimestamp(0));
+		assertEquals(75., series.getValue(0));
+		assertEquals(epochMilli(2024, 1, 15, 13), series.getTimestamp(1));
+	}
+
+	@Test
+	public void testResolution() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 1, 15, 10, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock).withResolution(15));
+		ForecastAssembler assembler = new ForecastAssembler(parser);
+		
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			for (int minute = 0; minute < 60; minute += 15) {
+				containers.add(new NodeParserContainer(TOPIC, "hour=" + hour + ";minute=" + minute, (hour*60 + minute)/10000.));
+			}
+		}
+		for (int i = containers.size() - 1; i >= 0; i--) {
+			assertTrue(assembler.update(containers.get(i)));
+		}
+		assertArrayEquals(parser.serialize(containers), assembler.serialize(TOPIC));
+		
+		JsonValueList series = read(assembler.serialize(TOPIC));
+		assertEquals(96, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 10, 30), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 16, 10, 15), series.getTimestamp(95));
+		
+		assertTrue(assembler.update(new NodeParserContainer(TOPIC, "hour=23;minute=50", .5)));
+		series = read(assembler.serializeChanges(TOPIC));
+		assertEquals(1, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 23, 45), series.getTimestamp(0));
+	}
+
+	@Test
+	public void testInvalid() {
+		ForecastAssembler assembler = new ForecastAssembler(new NodeParser());
+		assertThrows(SerializationException.class, () -> assembler.serialize(TOPIC));
+		assertThrows(SerializationException.class, () -> assembler.update(new NodeParserContainer(TOPIC, "hour=24", .5)));
+		assertThrows(SerializationException.class, () -> assembler.update(new NodeParserContainer(TOPIC, "", .5)));
+		assertThrows(SerializationException.class, () -> assembler.update(new NodeParserContainer("esg/node/stimulus", "", .5)));
+	}
+
+}
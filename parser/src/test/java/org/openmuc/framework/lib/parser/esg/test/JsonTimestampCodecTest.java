@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonTimestampCodec;
+
+
+public class JsonTimestampCodecTest {
+
+	private final JsonTimestampCodec codec = new JsonTimestampCodec();
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testFormat() {
+		byte[] buffer = new byte[JsonTimestampCodec.MAX_LENGTH];
+		long timestamp = 1704067200000L;
+		for (int i = 0; i < 100000; i++) {
+			timestamp += nextStep();
+			int offset = nextOffset(i);
+			
+			String expected = OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.ofTotalSeconds(offset))
+					.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+			int length = codec.format(timestamp, offset, buffer, 0);
+			assertEquals(expected, new String(buffer, 0, length, StandardCharsets.US_ASCII));
+		}
+		assertFormat(-62198755200000L, 0);
+		assertFormat(253402300800000L, 3600);
+	}
+
+	@Test
+	public void testParse() {
+		long timestamp = 1704067200000L;
+		for (int i = 0; i < 100000; i++) {
+			timestamp += nextStep();
+			int offset = nextOffset(i);
+			
+			String formatted = OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.ofTotalSeconds(offset))
+					.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+			assertEquals(timestamp, parse(formatted));
+			assertEquals(offset, codec.getOffsetSeconds());
+		}
+		assertEquals(1704067200000L, parse("2024-01-01T00:00Z"));
+		assertEquals(1704067200123L, parse("2024-01-01T00:00:00.123456789Z"));
+		assertEquals(1704067200000L, parse("2024-01-01t01:00:00+01:00"));
+		assertEquals(1704067200000L, parse("2023-12-31T23:00:00-01:00"));
+		
+		assertThrows(DateTimeException.class, () -> parse("2024-02-30T00:00:00Z"));
+		assertThrows(DateTimeException.class, () -> parse("2024-01-01T24:00:00Z"));
+		assertThrows(DateTimeException.class, () -> parse("2024-01-01T00:00:00"));
+		assertThrows(DateTimeException.class, () -> parse("2024-01-01T00:00:00+19:00"));
+		assertThrows(DateTimeException.class, () -> parse("2024-01-01"));
+	}
+
+	private void assertFormat(long timestamp, int offset) {
+		byte[] buffer = new byte[JsonTimestampCodec.MAX_LENGTH];
+		String expected = OffsetDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneOffset.ofTotalSeconds(offset))
+				.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+		int length = codec.format(timestamp, offset, buffer, 0);
+		assertEquals(expected, new String(buffer, 0, length, StandardCharsets.US_ASCII));
+	}
+
+	private long parse(String timestamp) {
+		byte[] bytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+		return codec.parse(bytes, 0, bytes.length);
+	}
+
+	private long nextStep() {
+		switch (random.nextInt(4)) {
+		case 0:
+			return 900000L;
+		case 1:
+			return 3600000L;
+		case 2:
+			return random.nextInt(1000);
+		default:
+			return random.nextInt(100000000);
+		}
+	}
+
+	private int nextOffset(int index) {
+		if (index % 10 != 0) {
+			return 0;
+		}
+		switch (random.nextInt(3)) {
+		case 0:
+			return 3600*(random.nextInt(37) - 18);
+		case 1:
+			return 1800*(random.nextInt(20) - 10);
+		default:
+			return random.nextInt(2*18*3600) - 18*3600;
+		}
+	}
+
+}
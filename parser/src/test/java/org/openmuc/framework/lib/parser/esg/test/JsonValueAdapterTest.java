@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonValue;
+import org.openmuc.framework.lib.parser.esg.json.JsonValue.JsonValueAdapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+
+public class JsonValueAdapterTest {
+
+	private static final long TIMESTAMP = ZonedDateTime.of(LocalDate.of(2024, 01, 01), LocalTime.of(00, 00), ZoneId.of("UTC"))
+			.toInstant().toEpochMilli();
+
+	private final Gson gson = new GsonBuilder()
+			.registerTypeAdapter(JsonValue.class, new JsonValueAdapter())
+			.disableHtmlEscaping()
+			.create();
+
+	@Test
+	public void testFieldOrder() {
+		JsonValue value = gson.fromJson("{ \"unit\" : \"kW\", \"value\" : 100.0,\n \"timestamp\" : \"2024-01-01T01:00:00+01:00\" }",
+				JsonValue.class);
+		assertEquals(TIMESTAMP, value.getTimestamp().toInstant().toEpochMilli());
+		assertEquals(100., value.getValueAsDouble());
+		assertEquals("kW", value.getUnit());
+	}
+
+	@Test
+	public void testUnknownFields() {
+		JsonValue value = gson.fromJson("{\"id\":{\"list\":[1,-2.5e3,true,null,\"\\\"}\"]},\"timestamp\":\"2024-01-01T00:00:00Z\","
+				+ "\"value\":\"0.5\",\"unit\":null,\"quality\":false}", JsonValue.class);
+		assertEquals(TIMESTAMP, value.getTimestamp().toInstant().toEpochMilli());
+		assertEquals(.5, value.getValueAsDouble());
+		assertNull(value.getUnit());
+	}
+
+	@Test
+	public void testMissingFields() {
+		assertThrows(JsonParseException.class, () -> gson.fromJson("{\"value\":1.0,\"unit\":\"kW\"}", JsonValue.class));
+		assertThrows(JsonParseException.class, () -> gson.fromJson("{\"timestamp\":\"2024-01-01T00:00:00Z\"}", JsonValue.class));
+		assertThrows(JsonParseException.class, () -> gson.fromJson("{\"timestamp\":\"2024-01-01\",\"value\":1.0}", JsonValue.class));
+		assertThrows(JsonParseException.class, () -> gson.fromJson("[1.0]", JsonValue.class));
+		assertNull(gson.fromJson("null", JsonValue.class));
+	}
+
+	@Test
+	public void testNonFinite() {
+		for (double number : new double[] { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }) {
+			JsonValue value = new JsonValue(ZonedDateTime.now(ZoneId.of("UTC")), number, "kW");
+			assertEquals(number, gson.fromJson(gson.toJson(value), JsonValue.class).getValueAsDouble());
+			assertEquals(number, JsonValue.deserialize(JsonValue.serialize(value)).getValueAsDouble());
+		}
+	}
+
+	@Test
+	public void testTree() {
+		JsonValue value = JsonValue.deserialize(new JsonParser().parse(
+				"{\"value\":-12.5,\"timestamp\":\"2024-01-01T00:00:00Z\",\"unit\":\"kWh\",\"id\":[]}"));
+		assertEquals(TIMESTAMP, value.getTimestamp().toInstant().toEpochMilli());
+		assertEquals(-12.5, value.getValueAsDouble());
+		assertSame(value.getValue(), value.getValue());
+		assertEquals("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":-12.5,\"unit\":\"kWh\"}",
+				JsonValue.serialize(value).toString());
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+
+
+public class JsonValueListTest {
+
+	@Test
+	public void testSortStable() {
+		JsonValueList list = new JsonValueList(4);
+		list.add(2000, 1.);
+		list.add(1000, 2.);
+		list.add(2000, 3.);
+		list.add(1000, 4.);
+		list.add(1000, 5.);
+		assertFalse(list.isSorted());
+		
+		list.sort();
+		assertTrue(list.isSorted());
+		long[] timestamps = new long[list.size()];
+		double[] values = new double[list.size()];
+		for (int i = 0; i < list.size(); i++) {
+			timestamps[i] = list.getTimestamp(i);
+			values[i] = list.getValue(i);
+		}
+		assertArrayEquals(new long[] { 1000, 1000, 1000, 2000, 2000 }, timestamps);
+		assertArrayEquals(new double[] { 2., 4., 5., 1., 3. }, values);
+	}
+
+	@Test
+	public void testIndexOfDuplicates() {
+		JsonValueList list = new JsonValueList(new long[] { 0, 1000, 1000, 1000, 2000, 2000 }, 
+				new double[] { 0., 1., 2., 3., 4., 5. }, null);
+		assertTrue(list.isSorted());
+		assertEquals(0, list.indexOf(0));
+		assertEquals(1, list.indexOf(1000));
+		assertEquals(4, list.indexOf(2000));
+		assertTrue(list.indexOf(500) < 0);
+		assertTrue(list.indexOf(3000) < 0);
+	}
+
+	@Test
+	public void testIndexOfUnsorted() {
+		JsonValueList list = new JsonValueList();
+		list.add(2000, 1.);
+		list.add(1000, 2.);
+		assertThrows(IllegalStateException.class, () -> list.indexOf(1000));
+		
+		// Searching never sorts the series in place
+		assertEquals(2000, list.getTimestamp(0));
+		list.sort();
+		assertEquals(0, list.indexOf(1000));
+	}
+
+	@Test
+	public void testIndexOfShared() throws Exception {
+		JsonValueList list = new JsonValueList(96*4);
+		for (int i = 0; i < 96; i++) {
+			for (int j = 0; j < 4; j++) {
+				list.add(i*900000L, i*4 + j);
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int t = 0; t < 8; t++) {
+				tasks.add(() -> {
+					for (int round = 0; round < 100; round++) {
+						for (int i = 0; i < 96; i++) {
+							int index = list.indexOf(i*900000L);
+							assertEquals(i*4, index);
+							assertEquals(i*4, list.getValue(index));
+						}
+					}
+					return null;
+				});
+			}
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+			
+		} finally {
+			executor.shutdown();
+		}
+		for (int i = 0; i < list.size(); i++) {
+			assertEquals(i, list.getValue(i));
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueReader;
+
+import com.google.gson.JsonParseException;
+
+
+public class JsonValueReaderTest {
+
+	private static final long TIMESTAMP = ZonedDateTime.of(LocalDate.of(2024, 01, 01), LocalTime.of(00, 00), ZoneId.of("UTC"))
+			.toInstant().toEpochMilli();
+
+	@Test
+	public void testFieldOrder() {
+		JsonValueReader reader = read("{ \"unit\" : \"kW\", \"value\" : 100.0,\n \"timestamp\" : \"2024-01-01T01:00:00+01:00\" }");
+		assertEquals(TIMESTAMP, reader.getEpochMilli());
+		assertEquals(100., reader.getValue());
+		assertEquals("kW", reader.getUnit());
+	}
+
+	@Test
+	public void testUnknownFields() {
+		JsonValueReader reader = read("{\"id\":{\"list\":[1,-2.5e3,true,null,\"\\\"}\"]},\"timestamp\":\"2024-01-01T00:00:00Z\","
+				+ "\"value\":\"0.5\",\"quality\":false}");
+		assertEquals(TIMESTAMP, reader.getEpochMilli());
+		assertEquals(.5, reader.getValue());
+		assertNull(reader.getUnit());
+	}
+
+	@Test
+	public void testNumbers() {
+		Random random = new Random(42);
+		for (int i = 0; i < 10000; i++) {
+			double value = i % 2 == 0 ? Math.round(random.nextGaussian()*1e6)/1e3 : random.nextGaussian()*Math.pow(10, random.nextInt(40) - 20);
+			assertEquals(value, readValue(String.valueOf(value)));
+		}
+		assertEquals(-0., readValue("-0"));
+		assertEquals(12345678901234567890., readValue("12345678901234567890"));
+		assertEquals(1.5e-300, readValue("1.5E-300"));
+	}
+
+	@Test
+	public void testNonFinite() {
+		assertTrue(Double.isNaN(readValue("NaN")));
+		assertTrue(Double.isNaN(readValue("\"NaN\"")));
+		assertEquals(Double.POSITIVE_INFINITY, readValue("Infinity"));
+		assertEquals(Double.NEGATIVE_INFINITY, readValue("-Infinity"));
+		assertEquals(Double.NEGATIVE_INFINITY, readValue("\"-Infinity\""));
+		
+		JsonValueReader reader = read("{\"min\":-Infinity,\"max\":[Infinity,NaN],\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1}");
+		assertEquals(1., reader.getValue());
+		
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":Nan}");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":-NaN}");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":\"Infinity}");
+	}
+
+	@Test
+	public void testArray() {
+		JsonValueReader reader = new JsonValueReader(("[{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1},"
+				+ "{\"timestamp\":\"2024-01-01T01:00:00Z\",\"value\":2,\"unit\":\"%\"}]").getBytes(StandardCharsets.UTF_8));
+		assertTrue(reader.isArray());
+		reader.beginArray();
+		reader.readValue();
+		assertEquals(1., reader.getValue());
+		assertTrue(reader.hasNext());
+		reader.readValue();
+		assertEquals(2., reader.getValue());
+		assertEquals(TIMESTAMP + 3600000, reader.getEpochMilli());
+		assertFalse(reader.hasNext());
+		reader.endArray();
+		reader.end();
+	}
+
+	@Test
+	public void testMalformed() {
+		assertMalformed("");
+		assertMalformed("{");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\"}");
+		assertMalformed("{\"value\":1.0}");
+		assertMalformed("{\"timestamp\":\"yesterday\",\"value\":1.0}");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1.}");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1.0}}");
+		assertMalformed("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1.0,\"unit\":\"kW}");
+	}
+
+	private static void assertMalformed(String json) {
+		assertThrows(JsonParseException.class, () -> read(json));
+	}
+
+	private static double readValue(String number) {
+		return read("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":" + number + "}").getValue();
+	}
+
+	private static JsonValueReader read(String json) {
+		JsonValueReader reader = new JsonValueReader(json.getBytes(StandardCharsets.UTF_8));
+		reader.readValue();
+		reader.end();
+		return reader;
+	}
+
+}
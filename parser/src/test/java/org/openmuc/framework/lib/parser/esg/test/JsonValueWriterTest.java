@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.lib.parser.esg.json.JsonValue;
+import org.openmuc.framework.lib.parser.esg.json.JsonValue.JsonValueAdapter;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueWriter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+
+public class JsonValueWriterTest {
+
+	private final Gson gson = new GsonBuilder()
+			.registerTypeAdapter(JsonValue.class, new JsonValueAdapter())
+			.disableHtmlEscaping()
+			.create();
+
+	private final Random random = new Random(42);
+
+	@Test
+	public void testValues() {
+		JsonValueWriter writer = new JsonValueWriter(16);
+		for (int i = 0; i < 10000; i++) {
+			JsonValue value = new JsonValue(nextTimestamp(), nextValue(), nextUnit());
+			writer.reset();
+			writer.writeValue(value);
+			assertArrayEquals(gson.toJson(value).getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+		}
+		for (JsonValueType type : JsonValueType.values()) {
+			JsonValue value = new JsonValue(nextTimestamp(), nextValue(), type.getUnit());
+			writer.reset();
+			writer.writeValue(value.getTimestamp(), value.getValueAsDouble(), type);
+			assertArrayEquals(gson.toJson(value).getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+		}
+	}
+
+	@Test
+	public void testArray() {
+		List<JsonValue> values = new ArrayList<JsonValue>();
+		JsonValueWriter writer = new JsonValueWriter();
+		writer.beginArray();
+		for (int i = 0; i < 96; i++) {
+			JsonValue value = new JsonValue(nextTimestamp(), nextValue(), null);
+			writer.writeValue(value.getTimestamp(), value.getValueAsDouble());
+			values.add(value);
+		}
+		writer.endArray();
+		assertArrayEquals(gson.toJson(values).getBytes(StandardCharsets.UTF_8), writer.toByteArray());
+	}
+
+	private ZonedDateTime nextTimestamp() {
+		long timestamp = 1704067200000L + random.nextInt(1000)*900000L + (random.nextBoolean() ? random.nextInt(1000) : 0);
+		ZoneId zone = random.nextBoolean() ? ZoneId.of("UTC") : ZoneId.of("Europe/Berlin");
+		return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timestamp), zone);
+	}
+
+	private double nextValue() {
+		switch (random.nextInt(5)) {
+		case 0:
+			return random.nextInt(200000) - 100000;
+		case 1:
+			return Math.round(random.nextGaussian()*1e4)/100.;
+		case 2:
+			return random.nextGaussian()*Math.pow(10, random.nextInt(40) - 20);
+		case 3:
+			return random.nextBoolean() ? 0. : -0.;
+		default:
+			return random.nextBoolean() ? 1e7 : -9999999.;
+		}
+	}
+
+	private String nextUnit() {
+		switch (random.nextInt(4)) {
+		case 0:
+			return null;
+		case 1:
+			return JsonValueType.values()[random.nextInt(JsonValueType.values().length)].getUnit();
+		case 2:
+			return "\u00b0C \"quoted\" \\ \t\u0001 \u2028 \ud83d\udd0b";
+		default:
+			return "";
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.clock;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.epochMilli;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.read;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.ForecastAssembler;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.Aggregation;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserAggregationTest {
+
+	private static final String TOPIC = "esg/node/power/forecast";
+
+	private static final NodeParserOptions OPTIONS = NodeParserOptions.DEFAULT.withClock(clock(2024, 1, 15, 10, 30));
+
+	@Test
+	public void testAggregation() throws SerializationException {
+		// Minutely records of the hours 11 and 12, valued by their minute of the day
+		List<LoggingRecord> containers = minutes(11*60, 13*60, 1);
+		
+		JsonValueList series = read(new NodeParser(OPTIONS.withAggregation(Aggregation.MEAN)).serialize(containers));
+		assertEquals(2, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 11, 0), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 15, 12, 0), series.getTimestamp(1));
+		assertEquals((11*60 + 29.5)/1000., series.getValue(0), 1e-6);
+		assertEquals((12*60 + 29.5)/1000., series.getValue(1), 1e-6);
+		
+		series = read(new NodeParser(OPTIONS.withAggregation(Aggregation.MIN)).serialize(containers));
+		assertEquals(11*60/1000., series.getValue(0), 1e-6);
+		
+		series = read(new NodeParser(OPTIONS.withAggregation(Aggregation.MAX)).serialize(containers));
+		assertEquals((11*60 + 59)/1000., series.getValue(0), 1e-6);
+		
+		// The latest minute wins, regardless of the order of the records
+		List<LoggingRecord> reversed = new ArrayList<LoggingRecord>(containers);
+		Collections.reverse(reversed);
+		series = read(new NodeParser(OPTIONS.withAggregation(Aggregation.LAST)).serialize(reversed));
+		assertEquals((11*60 + 59)/1000., series.getValue(0), 1e-6);
+		assertEquals((12*60 + 59)/1000., series.getValue(1), 1e-6);
+		
+		// Without aggregation, every record is kept
+		series = read(new NodeParser(OPTIONS).serialize(containers));
+		assertEquals(120, series.size());
+	}
+
+	@Test
+	public void testResolution() throws SerializationException {
+		NodeParser parser = new NodeParser(OPTIONS.withResolution(15).withAggregation(Aggregation.MEAN));
+		List<LoggingRecord> containers = minutes(0, 24*60, 5);
+		
+		// Quarter hours wrap around the day, starting with the current one
+		byte[] payload = parser.serialize(containers);
+		JsonValueList series = read(payload);
+		assertEquals(96, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 10, 30), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 16, 10, 15), series.getTimestamp(95));
+		assertEquals((10*60 + 35)/1000., series.getValue(0), 1e-6);
+		for (int i = 1; i < series.size(); i++) {
+			assertEquals(15*60000, series.getTimestamp(i) - series.getTimestamp(i - 1));
+		}
+		
+		Record record = parser.deserialize(payload, new NodeParserContainer(TOPIC, "hour=10;minute=45"));
+		assertEquals(Flag.VALID, record.getFlag());
+		assertEquals(10*60 + 50, record.getValue().asDouble(), 1e-6);
+	}
+
+	@Test
+	public void testInvalidResolution() {
+		assertThrows(IllegalArgumentException.class, () -> OPTIONS.withResolution(0));
+		assertThrows(IllegalArgumentException.class, () -> OPTIONS.withResolution(7));
+	}
+
+	@Test
+	public void testMisconfigured() throws SerializationException {
+		NodeParser parser = new NodeParser(OPTIONS.withResolution(15).withAggregation(Aggregation.MEAN));
+		List<LoggingRecord> containers = minutes(11*60, 12*60, 15);
+		byte[] payload = parser.serialize(containers);
+		
+		for (String settings : new String[] { "hour=11;minute=75", "hour=11;minute=-15", "hour=11;minute=half", 
+				"hour=eleven", "hour=-1", "hour=" + Integer.MAX_VALUE }) {
+			assertEquals(Flag.DRIVER_ERROR_CHANNEL_ADDRESS_SYNTAX_INVALID, 
+					parser.deserialize(payload, new NodeParserContainer(TOPIC, settings)).getFlag());
+			
+			// Misconfigured channels are skipped, without failing the forecast
+			List<LoggingRecord> misconfigured = new ArrayList<LoggingRecord>(containers);
+			misconfigured.add(new NodeParserContainer(TOPIC, settings, 1.));
+			assertArrayEquals(payload, parser.serialize(misconfigured));
+			
+			ForecastAssembler assembler = new ForecastAssembler(parser);
+			assertThrows(SerializationException.class, () -> assembler.update(new NodeParserContainer(TOPIC, settings, 1.)));
+		}
+	}
+
+	private static List<LoggingRecord> minutes(int from, int to, int step) {
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int minute = from; minute < to; minute += step) {
+			containers.add(new NodeParserContainer(TOPIC, "hour=" + minute/60 + ";minute=" + minute%60, minute));
+		}
+		return containers;
+	}
+
+}
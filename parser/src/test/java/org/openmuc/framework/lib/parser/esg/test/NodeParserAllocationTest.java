@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.FORECAST_TOPIC;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.forecast;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.slf4j.Logger;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Guards the bytes allocated per operation of the parser hot paths against regressions.
+ * <p>
+ * Every operation is measured in its own JVM, as the allocation the JIT can eliminate depends on the
+ * profile other code left behind. It is warmed up until compiled, before its allocation is measured
+ * by the {@link ThreadMXBean} of the running thread, in several rounds of which the lowest counts.
+ * The budgets leave headroom above the measured allocation, so they fail on regressions, not on
+ * differences between JVMs. If a change lowers the allocation considerably, the budget should be
+ * lowered with it.
+ */
+public class NodeParserAllocationTest {
+
+	private static final String POWER_TOPIC = "esg/node/power";
+
+	private static final int WARMUP_ITERATIONS = 20000;
+	private static final int ITERATIONS = 10000;
+	private static final int ROUNDS = 5;
+	private static final int FORECAST_PAYLOADS = 256;
+
+	/**
+	 * Budgets in bytes per operation, with the allocation measured on JDK 17 and 21 in comments.
+	 */
+	private static final long SERIALIZE_BUDGET = 320; // 120, 216
+	private static final long DESERIALIZE_BUDGET = 512; // 304, 304
+	private static final long SERIALIZE_FORECAST_BUDGET = 4352; // 3264, 3504
+	private static final long DESERIALIZE_FORECAST_BUDGET = 6656; // 5274, 5274
+
+	private static com.sun.management.ThreadMXBean threads;
+
+	@BeforeAll
+	public static void setup() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Thread allocation is not measurable");
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+				"Thread allocation is not measurable");
+	}
+
+	@Test
+	public void testSerialize() throws Exception {
+		assertBudget("serialize", SERIALIZE_BUDGET);
+	}
+
+	@Test
+	public void testDeserialize() throws Exception {
+		assertBudget("deserialize", DESERIALIZE_BUDGET);
+	}
+
+	@Test
+	public void testSerializeForecast() throws Exception {
+		assertBudget("serializeForecast", SERIALIZE_FORECAST_BUDGET);
+	}
+
+	@Test
+	public void testDeserializeForecast() throws Exception {
+		assertBudget("deserializeForecast", DESERIALIZE_FORECAST_BUDGET);
+	}
+
+	/**
+	 * Measures an operation in a forked JVM, with the classpath the parser and this test were loaded from.
+	 */
+	private static void assertBudget(String name, long budget) throws Exception {
+		Set<String> classpath = new LinkedHashSet<String>();
+		for (Class<?> type : new Class<?>[] { NodeParserAllocationTest.class, NodeParser.class, Record.class,
+				LoggingRecord.class, JsonParseException.class, Logger.class }) {
+			classpath.add(new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+		}
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, "-cp", String.join(File.pathSeparator, classpath),
+				NodeParserAllocationTest.class.getName(), name)
+				.redirectErrorStream(true)
+				.start();
+		List<String> output = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				output.add(line);
+			}
+		}
+		assertEquals(0, process.waitFor(), () -> "Measuring " + name + " failed: " + output);
+		long allocated = Long.parseLong(output.get(output.size() - 1).trim());
+		assertTrue(allocated <= budget, 
+				String.format("Allocation of %s exceeds budget: %d > %d bytes/op", name, allocated, budget));
+	}
+
+	/**
+	 * Prints the bytes allocated per call of the operation of the given name, to the forking test.
+	 */
+	public static void main(String[] args) throws Exception {
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		System.out.println(measure(operation(args[0], new NodeParser())));
+	}
+
+	private static Operation operation(String name, NodeParser parser) throws Exception {
+		switch (name) {
+		case "serialize": {
+			NodeParserContainer container = new NodeParserContainer(POWER_TOPIC);
+			Record record = new Record(new DoubleValue(1234.5), System.currentTimeMillis());
+			return () -> parser.serialize(record, container);
+		}
+		case "deserialize": {
+			NodeParserContainer container = new NodeParserContainer(POWER_TOPIC);
+			byte[] payload = parser.serialize(new Record(new DoubleValue(1234.5), System.currentTimeMillis()), container);
+			return () -> parser.deserialize(payload, container);
+		}
+		case "serializeForecast": {
+			List<LoggingRecord> containers = forecast();
+			return () -> parser.serialize(containers);
+		}
+		case "deserializeForecast": {
+			// Cycle through more payloads than the forecast cache holds, to measure the decoding, not a cache hit
+			byte[][] payloads = new byte[FORECAST_PAYLOADS][];
+			for (int i = 0; i < payloads.length; i++) {
+				payloads[i] = parser.serialize(forecast(i));
+			}
+			NodeParserContainer container = new NodeParserContainer(FORECAST_TOPIC, "hour=12");
+			int[] index = { 0 };
+			return () -> parser.deserialize(payloads[index[0]++ % payloads.length], container);
+		}
+		default:
+			throw new IllegalArgumentException("Unknown operation: " + name);
+		}
+	}
+
+	private static long measure(Operation operation) throws Exception {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			operation.run();
+		}
+		long threadId = Thread.currentThread().getId();
+		long allocated = Long.MAX_VALUE;
+		for (int r = 0; r < ROUNDS; r++) {
+			long start = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < ITERATIONS; i++) {
+				operation.run();
+			}
+			allocated = Math.min(allocated, (threads.getThreadAllocatedBytes(threadId) - start)/ITERATIONS);
+		}
+		return allocated;
+	}
+
+	private interface Operation {
+
+		Object run() throws Exception;
+
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.reflect.Method;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserBatchTest {
+
+	private static final String FORECAST_TOPIC = "esg/node/stimulus/forecast";
+
+	@Test
+	public void testMixedTopics() throws Exception {
+		NodeParser parser = new NodeParser();
+		List<LoggingRecord> batch = new ArrayList<LoggingRecord>();
+		List<LoggingRecord> forecast = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			NodeParserContainer container = new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour, hour/100.);
+			forecast.add(container);
+			batch.add(container);
+			if (hour % 8 == 0) {
+				batch.add(new NodeParserContainer("esg/node" + hour + "/power", "", hour*1000.));
+			}
+		}
+		assertThrows(UnsupportedOperationException.class, () -> parser.serialize(batch));
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			for (Map<String, CompletableFuture<byte[]>> payloads : Arrays.asList(
+					parser.serializeAsync(batch), parser.serializeAsync(batch, executor))) {
+				
+				assertEquals(Arrays.asList(FORECAST_TOPIC, "esg/node0/power", "esg/node8/power", "esg/node16/power"),
+						new ArrayList<String>(payloads.keySet()));
+				
+				assertArrayEquals(parser.serialize(forecast), payloads.get(FORECAST_TOPIC).get());
+				for (LoggingRecord container : batch) {
+					if (container.getLoggingSettings().endsWith("power")) {
+						String topic = container.getLoggingSettings().substring("logger:topic=".length());
+						assertArrayEquals(parser.serialize(container), payloads.get(topic).get());
+					}
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testVirtualThreads() throws Exception {
+		Method isVirtual;
+		try {
+			isVirtual = Thread.class.getMethod("isVirtual");
+			
+		} catch (NoSuchMethodException e) {
+			isVirtual = null;
+		}
+		assumeTrue(isVirtual != null, "Virtual threads require Java 21 or later");
+		
+		NodeParser parser = new NodeParser();
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		List<LoggingRecord> batch = new ArrayList<LoggingRecord>();
+		List<String> topics = new ArrayList<String>();
+		for (int node = 0; node < 100; node++) {
+			String topic = "esg/node" + node + "/power";
+			topics.add(topic);
+			batch.add(new NodeParserContainer(topic, "", node*1000.) {
+				@Override
+				public Record getRecord() {
+					threads.add(Thread.currentThread());
+					return super.getRecord();
+				}
+			});
+		}
+		Map<String, CompletableFuture<byte[]>> payloads = parser.serializeAsync(batch);
+		assertEquals(topics, new ArrayList<String>(payloads.keySet()));
+		for (int node = 0; node < batch.size(); node++) {
+			assertArrayEquals(parser.serialize(batch.get(node)), payloads.get(topics.get(node)).get());
+		}
+		synchronized (threads) {
+			for (Thread thread : threads) {
+				if (thread != Thread.currentThread()) {
+					assertTrue((Boolean) isVirtual.invoke(thread), "Batch encoded on platform thread " + thread);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFailedTopic() throws Exception {
+		NodeParser parser = new NodeParser();
+		List<LoggingRecord> batch = Arrays.asList(
+				new NodeParserContainer("esg/node/power", "", 1000.),
+				new NodeParserContainer("esg/node/energy", "",
+						new Record(null, System.currentTimeMillis(), Flag.DRIVER_ERROR_TIMEOUT)));
+		
+		Map<String, CompletableFuture<byte[]>> payloads = parser.serializeAsync(batch);
+		assertArrayEquals(parser.serialize(batch.get(0)), payloads.get("esg/node/power").get());
+		
+		ExecutionException e = assertThrows(ExecutionException.class, () -> payloads.get("esg/node/energy").get());
+		assertInstanceOf(SerializationException.class, e.getCause());
+		
+		assertEquals(Collections.emptyMap(), parser.serializeAsync(Collections.<LoggingRecord>emptyList()));
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.clock;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+
+
+public class NodeParserConcurrencyTest {
+
+	private static final int INPUTS = 200;
+
+	private static final int ROUNDS = 50;
+
+	private static final String[] TOPICS = { "esg/node/power", "esg/node/energy", "esg/node/stimulus" };
+
+	private static final Clock CLOCK = clock(2024, 1, 15, 0, 30);
+
+	private final NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(CLOCK));
+
+	@Test
+	public void testConcurrentResults() throws Exception {
+		List<String> expected = new ArrayList<String>(INPUTS);
+		for (int i = 0; i < INPUTS; i++) {
+			expected.add(parse(i));
+		}
+		int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int t = 0; t < threads; t++) {
+				int offset = t;
+				results.add(executor.submit(new Callable<List<String>>() {
+					@Override
+					public List<String> call() throws Exception {
+						start.await();
+						List<String> outputs = new ArrayList<String>(INPUTS);
+						for (int i = 0; i < INPUTS; i++) {
+							outputs.add(null);
+						}
+						for (int r = 0; r < ROUNDS; r++) {
+							// Every thread walks the inputs in a different order, to interleave different inputs
+							for (int i = 0; i < INPUTS; i++) {
+								int input = (i + offset*7 + r) % INPUTS;
+								String result = parse(input);
+								if (r > 0) {
+									assertEquals(outputs.get(input), result);
+								}
+								outputs.set(input, result);
+							}
+						}
+						return outputs;
+					}
+				}));
+			}
+			start.countDown();
+			
+			for (Future<List<String>> result : results) {
+				assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Serializes and deserializes the input of an index, and describes all results as a string.
+	 */
+	private String parse(int index) throws Exception {
+		StringBuilder result = new StringBuilder();
+		String topic = TOPICS[index % TOPICS.length];
+		double value = index*1.37 - 50;
+		
+		Record record = new Record(new DoubleValue(value), CLOCK.millis() + index*60000L);
+		byte[] payload = parser.serialize(record, new NodeParserContainer(topic));
+		Record decoded = parser.deserialize(payload, new NodeParserContainer(topic));
+		assertEquals(value, decoded.getValue().asDouble(), 1e-9);
+		result.append(new String(payload)).append(describe(decoded));
+		
+		List<LoggingRecord> forecast = new ArrayList<LoggingRecord>(24);
+		for (int hour = 0; hour < 24; hour++) {
+			forecast.add(new NodeParserContainer(topic + "/forecast", "hour=" + hour, value + hour));
+		}
+		byte[] forecastPayload = parser.serialize(forecast);
+		List<Record> hours = parser.deserialize(forecastPayload, forecast);
+		assertArrayEquals(forecastPayload, parser.serialize(forecast));
+		result.append(new String(forecastPayload));
+		for (int hour = 0; hour < 24; hour++) {
+			assertEquals(value + hour, hours.get(hour).getValue().asDouble(), 1e-9);
+			result.append(describe(hours.get(hour)));
+		}
+		return result.toString();
+	}
+
+	private static String describe(Record record) {
+		return record.getFlag() + ":" + record.getValue() + "@" + record.getTimestamp();
+	}
+
+}
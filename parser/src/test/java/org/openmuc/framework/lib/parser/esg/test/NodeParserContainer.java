@@ -40,6 +40,11 @@ public class NodeParserContainer extends LoggingRecord implements SerializationC
 	    		ValueType.DOUBLE, null, new Record(new DoubleValue(value), System.currentTimeMillis(), Flag.VALID));
 	}
 
+	public NodeParserContainer(String address, String settings, Record record) {
+	    super(null, address, settings, parseLoggingSettings(address),
+	    		ValueType.DOUBLE, null, record);
+	}
+
 	public NodeParserContainer(String address) {
 	    super(null, address, "", parseLoggingSettings(address),
 	    		ValueType.DOUBLE, null, null);
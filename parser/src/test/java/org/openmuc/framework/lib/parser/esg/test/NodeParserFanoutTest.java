@@ -0,0 +1,125 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.FORECAST_TOPIC;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.clock;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.forecast;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserFanoutTest {
+
+	private static final String TOPIC = FORECAST_TOPIC;
+
+	private static final Clock CLOCK = clock(2024, 1, 15, 0, 30);
+
+	@Test
+	public void testForecast() throws SerializationException {
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(CLOCK));
+		List<LoggingRecord> containers = forecast();
+		byte[] payload = parser.serialize(containers);
+		
+		List<Record> records = parser.deserialize(payload, containers);
+		assertEquals(24, records.size());
+		for (int hour = 0; hour < 24; hour++) {
+			Record record = records.get(hour);
+			assertEquals(Flag.VALID, record.getFlag());
+			assertEquals(hour/100., record.getValue().asDouble(), 1e-9);
+			assertEquals(CLOCK.millis(), record.getTimestamp());
+			
+			Record single = parser.deserialize(payload, containers.get(hour));
+			assertEquals(single.getValue().asDouble(), record.getValue().asDouble(), 1e-9);
+		}
+		assertEquals(48, parser.getMetrics().getDeserializeCount());
+		assertEquals(0, parser.getMetrics().getDeserializeErrors());
+	}
+
+	@Test
+	public void testSingleValue() throws SerializationException {
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(CLOCK));
+		NodeParserContainer power = new NodeParserContainer("esg/node/power", "", 1234.5);
+		byte[] payload = parser.serialize(power);
+		
+		List<Record> records = parser.deserialize(payload, 
+				Arrays.asList(power, new NodeParserContainer("esg/node/power")));
+		assertEquals(2, records.size());
+		for (Record record : records) {
+			assertEquals(Flag.VALID, record.getFlag());
+			assertEquals(1234.5, record.getValue().asDouble(), 1e-9);
+			assertEquals(power.getRecord().getTimestamp(), record.getTimestamp());
+		}
+	}
+
+	@Test
+	public void testInvalid() throws SerializationException {
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(CLOCK));
+		byte[] payload = parser.serialize(forecast());
+		
+		List<Record> records = parser.deserialize(payload, Arrays.asList(
+				new NodeParserContainer(TOPIC, "hour=1"),
+				new NodeParserContainer(TOPIC, ""),
+				new NodeParserContainer("esg/node/unknown/forecast", "hour=1")));
+		assertEquals(Flag.VALID, records.get(0).getFlag());
+		assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, records.get(1).getFlag());
+		assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, records.get(2).getFlag());
+		
+		byte[] malformed = "[{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+		for (Record record : parser.deserialize(malformed, forecast())) {
+			assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, record.getFlag());
+		}
+		assertEquals(26, parser.getMetrics().getDeserializeErrors());
+	}
+
+	@Test
+	public void testMalformed() throws SerializationException {
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(CLOCK));
+		byte[] malformed = "[{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < 3; i++) {
+			for (Record record : parser.deserialize(malformed, forecast())) {
+				assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, record.getFlag());
+			}
+			assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, 
+					parser.deserializeSeries(malformed, new NodeParserContainer(TOPIC, "hour=1")).getFlag());
+		}
+		assertEquals(3*25, parser.getMetrics().getDeserializeErrors());
+		
+		// The cached failure does not affect other payloads of the topic
+		byte[] payload = parser.serialize(forecast());
+		for (Record record : parser.deserialize(payload, forecast())) {
+			assertEquals(Flag.VALID, record.getFlag());
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueReader;
+
+
+public final class NodeParserFixture {
+
+	public static final String FORECAST_TOPIC = "esg/node/stimulus/forecast";
+
+	public static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+	private NodeParserFixture() {
+	}
+
+	public static Clock clock(int year, int month, int day, int hour, int minute) {
+		return Clock.fixed(ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, minute), BERLIN).toInstant(), BERLIN);
+	}
+
+	public static long epochMilli(int year, int month, int day, int hour) {
+		return epochMilli(year, month, day, hour, 0);
+	}
+
+	public static long epochMilli(int year, int month, int day, int hour, int minute) {
+		return ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, minute), BERLIN).toInstant().toEpochMilli();
+	}
+
+	public static List<LoggingRecord> forecast() {
+		return forecast(0);
+	}
+
+	public static List<LoggingRecord> forecast(int offset) {
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer(FORECAST_TOPIC, "hour=" + hour, (hour + offset)/100.));
+		}
+		return containers;
+	}
+
+	public static JsonValueList read(byte[] payload) {
+		return JsonValueList.read(new JsonValueReader(payload));
+	}
+
+	public static class TestClock extends Clock {
+
+		private Instant instant;
+
+		public TestClock(ZonedDateTime time) {
+			set(time);
+		}
+
+		public void set(ZonedDateTime time) {
+			instant = time.toInstant();
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return BERLIN;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+
+}
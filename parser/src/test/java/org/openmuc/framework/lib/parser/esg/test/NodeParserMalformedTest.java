@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueReader;
+import org.openmuc.framework.lib.parser.esg.json.MalformedJsonException;
+import org.openmuc.framework.lib.parser.esg.metrics.NodeParserMetrics;
+
+
+public class NodeParserMalformedTest {
+
+	private static final int FLOOD = 10000;
+
+	private static final byte[][] PAYLOADS = {
+			"{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":".getBytes(StandardCharsets.UTF_8),
+			"{\"timestamp\":\"yesterday\",\"value\":1.0}".getBytes(StandardCharsets.UTF_8),
+			"{\"value\":1.0}".getBytes(StandardCharsets.UTF_8),
+			"[1,2,3]".getBytes(StandardCharsets.UTF_8),
+			new byte[] { (byte) 0xE5, 0x7F, 0x01 },
+			new byte[0]
+	};
+
+	@Test
+	public void testFlood() {
+		for (NodeParser parser : new NodeParser[] { new NodeParser(), new BinaryNodeParser() }) {
+			NodeParserContainer container = new NodeParserContainer("esg/node/power");
+			for (int i = 0; i < FLOOD; i++) {
+				assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED,
+						parser.deserialize(PAYLOADS[i % PAYLOADS.length], container).getFlag());
+			}
+			NodeParserMetrics metrics = parser.getMetrics();
+			assertEquals(FLOOD, metrics.getDecodingFailedCount());
+			
+			// The first messages of the topic are logged, and then every 1000th
+			long logged = FLOOD - metrics.getLogSuppressedCount();
+			assertEquals(3 + (FLOOD - 3)/1000, logged);
+			
+			// Other topics are limited separately
+			parser.deserialize(PAYLOADS[0], new NodeParserContainer("esg/node/energy"));
+			assertEquals(FLOOD - logged, metrics.getLogSuppressedCount());
+		}
+	}
+
+	@Test
+	public void testUnknownType() {
+		NodeParser parser = new NodeParser();
+		NodeParserContainer container = new NodeParserContainer("esg/node/voltage");
+		for (int i = 0; i < FLOOD; i++) {
+			assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, parser.deserialize(PAYLOADS[0], container).getFlag());
+		}
+		assertEquals(FLOOD - 3 - (FLOOD - 3)/1000, parser.getMetrics().getLogSuppressedCount());
+	}
+
+	@Test
+	public void testException() {
+		MalformedJsonException e = assertThrows(MalformedJsonException.class,
+				() -> new JsonValueReader(PAYLOADS[1]).readValue());
+		assertEquals(14, e.getPosition());
+		assertEquals("Received malformed JSON at position 14: Malformed timestamp", e.getMessage());
+		assertEquals(0, e.getStackTrace().length);
+		
+		JsonValueReader reader = new JsonValueReader(PAYLOADS[0]);
+		assertFalse(reader.tryReadValue());
+		assertEquals("Received malformed JSON at position 44: Unexpected end of payload", reader.getError().getMessage());
+		
+		reader = new JsonValueReader("{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1.0} }".getBytes(StandardCharsets.UTF_8));
+		assertTrue(reader.tryReadValue());
+		assertFalse(reader.tryEnd());
+		assertEquals(49, reader.getError().getPosition());
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserMemoTest {
+
+	@Test
+	public void testValue() throws SerializationException {
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withPayloadMemo(true));
+		NodeParserContainer container = new NodeParserContainer("esg/node/power", "");
+		
+		byte[] payload = parser.serialize(new Record(new DoubleValue(1234.5), 1704067200000L), container);
+		assertSame(payload, parser.serialize(new Record(new DoubleValue(1234.5), 1704067200000L), container));
+		assertEquals(1, parser.getMetrics().getSerializeUnchangedCount());
+		assertEquals(2, parser.getMetrics().getSerializeCount());
+		
+		byte[] changed = parser.serialize(new Record(new DoubleValue(1234.6), 1704067200000L), container);
+		assertNotSame(payload, changed);
+		assertArrayEquals(new NodeParser().serialize(new Record(new DoubleValue(1234.6), 1704067200000L), container), changed);
+		assertNotSame(changed, parser.serialize(new Record(new DoubleValue(1234.6), 1704067260000L), container));
+		
+		parser.resetPayloadMemo();
+		assertNotSame(changed, parser.serialize(new Record(new DoubleValue(1234.6), 1704067260000L), container));
+	}
+
+	@Test
+	public void testIfChanged() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		NodeParserContainer power = new NodeParserContainer("esg/node/power", "");
+		NodeParserContainer energy = new NodeParserContainer("esg/node/energy", "");
+		Record record = new Record(new DoubleValue(1234.5), 1704067200000L);
+		
+		assertArrayEquals(parser.serialize(record, power), parser.serializeIfChanged(record, power));
+		assertNull(parser.serializeIfChanged(record, power));
+		assertNotNull(parser.serializeIfChanged(record, energy));
+		assertNotNull(parser.serializeIfChanged(new Record(new DoubleValue(1234.5), 1704067201000L), power));
+		
+		// Without the memo option, plain serialization neither reads nor updates the last payloads
+		assertNotSame(parser.serialize(record, power), parser.serialize(record, power));
+		assertNull(parser.serializeIfChanged(new Record(new DoubleValue(1234.5), 1704067201000L), power));
+	}
+
+	@Test
+	public void testForecast() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour, hour/100.));
+		}
+		assertArrayEquals(parser.serialize(containers), parser.serializeIfChanged(containers));
+		assertNull(parser.serializeIfChanged(containers));
+		
+		// Skipped records and fields that are not serialized do not affect the fingerprint
+		List<LoggingRecord> skipped = new ArrayList<LoggingRecord>(containers);
+		skipped.add(new NodeParserContainer("esg/node/stimulus/forecast", "hour=0",
+				new Record(null, System.currentTimeMillis(), Flag.NO_VALUE_RECEIVED_YET)));
+		assertNull(parser.serializeIfChanged(skipped));
+		
+		containers.set(12, new NodeParserContainer("esg/node/stimulus/forecast", "hour=12", 1.0));
+		assertArrayEquals(parser.serialize(containers), parser.serializeIfChanged(containers));
+		assertNull(parser.serializeIfChanged(containers));
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueType;
+import org.openmuc.framework.lib.parser.esg.metrics.LatencyHistogram;
+import org.openmuc.framework.lib.parser.esg.metrics.NodeParserMetrics;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserMetricsTest {
+
+	private final NodeParser parser = new NodeParser();
+
+	@Test
+	public void testCounts() throws SerializationException {
+		byte[] power = parser.serialize(new Record(new DoubleValue(100000.), 0L), new NodeParserContainer("esg/node/power"));
+		parser.deserialize(power, new NodeParserContainer("esg/node/power"));
+		parser.deserialize("{".getBytes(StandardCharsets.UTF_8), new NodeParserContainer("esg/node/power"));
+		parser.deserialize(power, new NodeParserContainer("esg/node/unknown"));
+		assertThrows(SerializationException.class, () -> parser.serialize(new Record(Flag.NO_VALUE_RECEIVED_YET),
+				new NodeParserContainer("esg/node/stimulus")));
+		
+		NodeParserMetrics metrics = parser.getMetrics();
+		assertEquals(2, metrics.getSerializeCount());
+		assertEquals(1, metrics.getSerializeErrors());
+		assertEquals(power.length, metrics.getSerializedBytes());
+		assertEquals(3, metrics.getDeserializeCount());
+		assertEquals(2, metrics.getDeserializeErrors());
+		assertEquals(2, metrics.getDecodingFailedCount());
+		
+		assertEquals(1./3, metrics.getErrorRate(JsonValueType.POWER));
+		assertEquals(1., metrics.getErrorRate(JsonValueType.STIMULUS));
+		assertEquals(1., metrics.getErrorRate(null));
+		assertEquals(3, metrics.getTopic("esg/node/power").getSerializeCount() + metrics.getTopic("esg/node/power").getDeserializeCount());
+		assertEquals(1, metrics.getTopic("esg/node/unknown").getDeserializeErrors());
+		
+		metrics.reset();
+		assertEquals(0, metrics.getDeserializeCount());
+		assertTrue(metrics.getTopics().isEmpty());
+	}
+
+	@Test
+	public void testHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i*1000);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000000, histogram.getMax());
+		assertEquals(500500., histogram.getMean());
+		assertInRange(500000, histogram.getPercentile(50));
+		assertInRange(990000, histogram.getPercentile(99));
+		assertEquals(1000000, histogram.getPercentile(100));
+	}
+
+	private static void assertInRange(long expected, long actual) {
+		assertTrue(actual >= expected && actual <= expected*1.25, "Expected about " + expected + " but was " + actual);
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions.SeriesEncoding;
+import org.openmuc.framework.lib.parser.esg.RecordSeries;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserSeriesTest {
+
+	private static final String TOPIC = "esg/node/stimulus/forecast";
+
+	private static final long NOW = Instant.parse("2024-01-15T10:30:00Z").toEpochMilli();
+
+	@Test
+	public void testForecast() throws SerializationException {
+		NodeParserOptions options = NodeParserOptions.DEFAULT.withClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneId.of("UTC")));
+		for (NodeParser parser : new NodeParser[] { new NodeParser(options), new BinaryNodeParser(options),
+				new NodeParser(options.withSeriesEncoding(SeriesEncoding.DELTA)) }) {
+			
+			List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+			for (int hour = 0; hour < 24; hour++) {
+				containers.add(new NodeParserContainer(TOPIC, "hour=" + hour, hour/100.));
+			}
+			byte[] payload = parser.serialize(containers);
+			
+			// The hour of the container does not matter for the whole series
+			RecordSeries series = parser.deserializeSeries(payload, new NodeParserContainer(TOPIC, "hour=3"));
+			assertEquals(Flag.VALID, series.getFlag());
+			assertEquals(24, series.size());
+			
+			long first = Instant.parse("2024-01-15T10:00:00Z").toEpochMilli();
+			int index = 0;
+			for (Record record : series) {
+				int hour = (10 + index) % 24;
+				assertEquals(first + index*3600000L, record.getTimestamp());
+				assertEquals(first + index*3600000L, series.getTimestamp(index));
+				assertEquals(hour/100., record.getValue().asDouble(), 1e-9);
+				assertEquals(hour/100., series.getValue(index), 1e-9);
+				index++;
+			}
+			assertEquals(24, series.toRecords().size());
+			assertEquals(1, parser.getMetrics().getDeserializeCount());
+		}
+	}
+
+	@Test
+	public void testValue() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		NodeParserContainer container = new NodeParserContainer("esg/node/power");
+		byte[] payload = parser.serialize(new Record(new DoubleValue(1234.5), NOW), container);
+		
+		RecordSeries series = parser.deserializeSeries(payload, container);
+		assertEquals(1, series.size());
+		assertEquals(NOW, series.get(0).getTimestamp());
+		assertEquals(1234.5, series.get(0).getValue().asDouble(), 1e-9);
+	}
+
+	@Test
+	public void testMalformed() {
+		NodeParser parser = new NodeParser();
+		byte[] payload = "[{\"timestamp\":\"2024-01-01T00:00:00Z\",\"value\":1.0},".getBytes(StandardCharsets.UTF_8);
+		for (NodeParserContainer container : new NodeParserContainer[] {
+				new NodeParserContainer(TOPIC, "hour=0"), new NodeParserContainer("esg/node/power") }) {
+			
+			RecordSeries series = parser.deserializeSeries(payload, container);
+			assertEquals(Flag.DRIVER_ERROR_DECODING_RESPONSE_FAILED, series.getFlag());
+			assertTrue(series.isEmpty());
+			assertFalse(series.iterator().hasNext());
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.BinaryNodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserSinkTest {
+
+	@Test
+	public void testValue() throws SerializationException, IOException {
+		for (NodeParser parser : new NodeParser[] { new NodeParser(), new BinaryNodeParser() }) {
+			NodeParserContainer container = new NodeParserContainer("esg/node/power", "", 1234.5);
+			Record record = new Record(new DoubleValue(1234.5), 1704067200000L);
+			byte[] expected = parser.serialize(record, container);
+			
+			for (ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.allocate(256), ByteBuffer.allocateDirect(256) }) {
+				buffer.position(3);
+				assertEquals(expected.length, parser.serialize(record, container, buffer));
+				assertEquals(3 + expected.length, buffer.position());
+				assertArrayEquals(expected, toArray(buffer, 3));
+			}
+			ByteArrayOutputStream stream = new ByteArrayOutputStream();
+			parser.serialize(record, container, stream);
+			parser.serialize((LoggingRecord) container, stream);
+			byte[] bytes = stream.toByteArray();
+			assertArrayEquals(expected, Arrays.copyOfRange(bytes, 0, expected.length));
+			assertArrayEquals(parser.serialize(container), Arrays.copyOfRange(bytes, expected.length, bytes.length));
+		}
+	}
+
+	@Test
+	public void testForecast() throws SerializationException, IOException {
+		NodeParser parser = new NodeParser();
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer("esg/node/stimulus/forecast", "hour=" + hour, hour/100.));
+		}
+		byte[] expected = parser.serialize(containers);
+		
+		ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+		assertEquals(expected.length, parser.serialize(containers, buffer));
+		assertArrayEquals(expected, buffer.array());
+		
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		parser.serialize(containers, stream);
+		assertArrayEquals(expected, stream.toByteArray());
+	}
+
+	@Test
+	public void testOverflow() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		NodeParserContainer container = new NodeParserContainer("esg/node/power");
+		Record record = new Record(new DoubleValue(1234.5), 1704067200000L);
+		
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		assertThrows(BufferOverflowException.class, () -> parser.serialize(record, container, buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	private static byte[] toArray(ByteBuffer buffer, int offset) {
+		ByteBuffer written = buffer.duplicate();
+		written.flip();
+		written.position(offset);
+		byte[] bytes = new byte[written.remaining()];
+		written.get(bytes);
+		return bytes;
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.BERLIN;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.FORECAST_TOPIC;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.epochMilli;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.forecast;
+import static org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.read;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.NodeParserOptions;
+import org.openmuc.framework.lib.parser.esg.json.JsonValueList;
+import org.openmuc.framework.lib.parser.esg.test.NodeParserFixture.TestClock;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class NodeParserSlotTest {
+
+	private static final String TOPIC = FORECAST_TOPIC;
+
+	@Test
+	public void testHourBoundary() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 1, 15, 10, 59, 59), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		
+		JsonValueList series = read(parser.serialize(forecast()));
+		assertEquals(24, series.size());
+		assertEquals(epochMilli(2024, 1, 15, 10), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 16, 9), series.getTimestamp(23));
+		
+		clock.set(ZonedDateTime.of(LocalDateTime.of(2024, 1, 15, 11, 0), BERLIN));
+		series = read(parser.serialize(forecast()));
+		assertEquals(epochMilli(2024, 1, 15, 11), series.getTimestamp(0));
+		assertEquals(epochMilli(2024, 1, 16, 10), series.getTimestamp(23));
+		
+		clock.set(ZonedDateTime.of(LocalDateTime.of(2024, 1, 16, 0, 0), BERLIN));
+		byte[] payload = parser.serialize(forecast());
+		series = read(payload);
+		assertEquals(epochMilli(2024, 1, 16, 0), series.getTimestamp(0));
+		
+		Record record = parser.deserialize(payload, new NodeParserContainer(TOPIC, "hour=7"));
+		assertEquals(Flag.VALID, record.getFlag());
+		assertEquals(0.07, record.getValue().asDouble(), 1e-9);
+		assertEquals(clock.millis(), record.getTimestamp());
+	}
+
+	@Test
+	public void testDaylightSavingStart() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 3, 31, 0, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		
+		// 02:00 does not exist on this day and maps onto the next day
+		byte[] payload = parser.serialize(forecast());
+		JsonValueList series = read(payload);
+		assertEquals(24, series.size());
+		assertEquals(epochMilli(2024, 3, 31, 3), series.getTimestamp(2));
+		assertEquals(0.03*100, series.getValue(2), 1e-9);
+		assertEquals(epochMilli(2024, 4, 1, 2), series.getTimestamp(23));
+		
+		assertEquals(Flag.DRIVER_ERROR_CHANNEL_TEMPORARILY_NOT_ACCESSIBLE,
+				parser.deserialize(payload, new NodeParserContainer(TOPIC, "hour=2")).getFlag());
+		for (int hour : new int[] { 0, 1, 3, 23 }) {
+			Record record = parser.deserialize(payload, new NodeParserContainer(TOPIC, "hour=" + hour));
+			assertEquals(Flag.VALID, record.getFlag());
+			assertEquals(hour/100., record.getValue().asDouble(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testDaylightSavingEnd() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 10, 27, 0, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		
+		// 02:00 occurs twice on this day and maps onto its first occurrence
+		byte[] payload = parser.serialize(forecast());
+		JsonValueList series = read(payload);
+		assertEquals(24, series.size());
+		assertEquals(ZonedDateTime.of(LocalDateTime.of(2024, 10, 27, 2, 0), BERLIN).withEarlierOffsetAtOverlap()
+				.toInstant().toEpochMilli(), series.getTimestamp(2));
+		assertEquals(epochMilli(2024, 10, 27, 3), series.getTimestamp(3));
+		assertEquals(2*3600000L, series.getTimestamp(3) - series.getTimestamp(2));
+		
+		for (int hour = 0; hour < 24; hour++) {
+			Record record = parser.deserialize(payload, new NodeParserContainer(TOPIC, "hour=" + hour));
+			assertEquals(Flag.VALID, record.getFlag());
+			assertEquals(hour/100., record.getValue().asDouble(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testMultipleDays() throws SerializationException {
+		TestClock clock = new TestClock(ZonedDateTime.of(LocalDateTime.of(2024, 3, 30, 10, 30), BERLIN));
+		NodeParser parser = new NodeParser(NodeParserOptions.DEFAULT.withClock(clock));
+		
+		// Hours beyond the day map onto the elapsed time since its start, across the transition
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 24; hour < 72; hour++) {
+			containers.add(new NodeParserContainer(TOPIC, "hour=" + hour, hour/100.));
+		}
+		JsonValueList series = read(parser.serialize(containers));
+		assertEquals(48, series.size());
+		long start = epochMilli(2024, 3, 30, 0);
+		for (int i = 0; i < series.size(); i++) {
+			assertEquals(start + (24 + i)*3600000L, series.getTimestamp(i));
+		}
+		assertEquals(epochMilli(2024, 4, 2, 0), series.getTimestamp(47));
+	}
+
+}
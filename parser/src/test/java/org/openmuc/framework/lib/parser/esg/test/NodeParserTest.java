@@ -23,6 +23,7 @@ package org.openmuc.framework.lib.parser.esg.test;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -43,6 +44,7 @@ import org.openmuc.framework.data.Record;
 import org.openmuc.framework.data.Value;
 import org.openmuc.framework.datalogger.spi.LoggingRecord;
 import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.RecordSeries;
 import org.openmuc.framework.parser.spi.SerializationContainer;
 import org.openmuc.framework.parser.spi.SerializationException;
 
@@ -104,6 +106,43 @@ public class NodeParserTest {
         		new NodeParserContainer("esg/node/stimulus/forecast", "hour=12")).getValue().asDouble(), 12.);
     }
 
+	@Test
+	public void testNonFinite() throws SerializationException {
+        ZoneId timezone = ZoneId.of("UTC");
+        ZonedDateTime timestamp = ZonedDateTime.of(LocalDate.of(2024, 01, 01), LocalTime.of(00, 00), timezone);
+        double[] values = { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+        String[] literals = { "NaN", "Infinity", "-Infinity" };
+        for (int i = 0; i < values.length; i++) {
+            byte[] payload = serialize("esg/node/stimulus", timestamp, new DoubleValue(values[i]));
+            String json = new String(payload, StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"value\":" + literals[i]), json);
+            
+            Record record = deserialize(payload, "esg/node/stimulus");
+            assertEquals(Flag.VALID, record.getFlag());
+            assertEquals(values[i], record.getValue().asDouble());
+            
+            record = deserialize(json.replace(literals[i], "\"" + literals[i] + "\"").getBytes(StandardCharsets.UTF_8), 
+            		"esg/node/stimulus");
+            assertEquals(values[i], record.getValue().asDouble());
+            
+            double value = values[i];
+    		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+            IntStream.range(0, 24).forEachOrdered(h -> {
+            	containers.add(new NodeParserContainer("esg/node/stimulus/forecast", String.format("hour=%s", String.valueOf(h)), value));
+            });
+            byte[] forecastPayload = parser.serialize(containers);
+            String forecast = new String(forecastPayload, StandardCharsets.UTF_8);
+            assertTrue(forecast.contains("\"value\":" + literals[i]), forecast);
+            
+            RecordSeries series = parser.deserializeSeries(forecastPayload, containers.get(0));
+            assertEquals(Flag.VALID, series.getFlag());
+            assertEquals(24, series.size());
+            for (int hour = 0; hour < series.size(); hour++) {
+                assertEquals(value, series.getValue(hour));
+            }
+        }
+    }
+
 	private Record deserializeStimulus(String topic) {
 		return deserialize(STIMULUS_JSON, topic);
 	}
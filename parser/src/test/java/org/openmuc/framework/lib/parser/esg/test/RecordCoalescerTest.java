@@ -0,0 +1,211 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.data.DoubleValue;
+import org.openmuc.framework.data.Flag;
+import org.openmuc.framework.data.Record;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.RecordCoalescer;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class RecordCoalescerTest {
+
+	private static final String POWER_TOPIC = "esg/node/power";
+	private static final String STIMULUS_TOPIC = "esg/node/stimulus";
+
+	private final NodeParser parser = new NodeParser();
+
+	private final Map<String, byte[]> payloads = new ConcurrentHashMap<String, byte[]>();
+
+	@Test
+	public void testLatestWins() throws SerializationException {
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 0, TimeUnit.SECONDS, 0, payloads::put);
+		NodeParserContainer power = null;
+		for (int i = 1; i <= 3; i++) {
+			power = new NodeParserContainer(POWER_TOPIC, "", record(i*1000));
+			assertTrue(coalescer.offer(power));
+		}
+		NodeParserContainer stimulus = new NodeParserContainer(STIMULUS_TOPIC, "", record(.2));
+		coalescer.offer(new NodeParserContainer(STIMULUS_TOPIC, "", record(.1)));
+		coalescer.offer(stimulus);
+		assertTrue(payloads.isEmpty());
+		
+		assertEquals(2, coalescer.flush());
+		assertEquals(3, coalescer.getCoalescedCount());
+		assertArrayEquals(parser.serialize(power), payloads.get(POWER_TOPIC));
+		assertArrayEquals(parser.serialize(stimulus), payloads.get(STIMULUS_TOPIC));
+		
+		assertEquals(0, coalescer.flush());
+		assertFalse(coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", new Record(Flag.NO_VALUE_RECEIVED_YET))));
+		assertEquals(0, coalescer.flush());
+	}
+
+	@Test
+	public void testLimit() throws SerializationException {
+		List<String> topics = new ArrayList<String>();
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 0, TimeUnit.SECONDS, 4, (topic, payload) -> topics.add(topic));
+		for (int i = 0; i < 3; i++) {
+			coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", record(i)));
+		}
+		assertTrue(topics.isEmpty());
+		coalescer.offer(new NodeParserContainer(STIMULUS_TOPIC, "", record(.5)));
+		assertEquals(2, topics.size());
+	}
+
+	@Test
+	public void testLimitWhileFlushing() throws Exception {
+		CountDownLatch flushing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> topics = Collections.synchronizedList(new ArrayList<String>());
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 0, TimeUnit.SECONDS, 4, (topic, payload) -> {
+			if (topic.equals(STIMULUS_TOPIC)) {
+				flushing.countDown();
+				try {
+					release.await();
+					
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			topics.add(topic);
+		});
+		coalescer.offer(new NodeParserContainer(STIMULUS_TOPIC, "", record(.5)));
+		Thread flush = new Thread(coalescer::flush);
+		flush.start();
+		assertTrue(flushing.await(5, TimeUnit.SECONDS));
+		
+		// Reaching the limit during the flush neither blocks nor flushes
+		for (int i = 0; i < 4; i++) {
+			coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", record(i)));
+		}
+		release.countDown();
+		flush.join();
+		assertEquals(Collections.singletonList(STIMULUS_TOPIC), topics);
+		
+		// The next multiple of the limit flushes the window
+		for (int i = 0; i < 3; i++) {
+			coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", record(i)));
+		}
+		assertEquals(1, topics.size());
+		coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", record(4)));
+		assertEquals(Arrays.asList(STIMULUS_TOPIC, POWER_TOPIC), topics);
+	}
+
+	@Test
+	public void testIdleTopics() throws SerializationException {
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 0, TimeUnit.SECONDS, 0, payloads::put);
+		NodeParserContainer power = new NodeParserContainer(POWER_TOPIC, "", record(1000));
+		coalescer.offer(power);
+		coalescer.offer(new NodeParserContainer(STIMULUS_TOPIC, "", record(.5)));
+		assertEquals(2, coalescer.flush());
+		
+		power = new NodeParserContainer(POWER_TOPIC, "", record(2000));
+		coalescer.offer(power);
+		assertEquals(1, coalescer.flush());
+		assertEquals(Collections.singleton(POWER_TOPIC), coalescer.getTopics());
+		
+		assertEquals(0, coalescer.flush());
+		assertTrue(coalescer.getTopics().isEmpty());
+		
+		power = new NodeParserContainer(POWER_TOPIC, "", record(3000));
+		coalescer.offer(power);
+		assertEquals(1, coalescer.flush());
+		assertArrayEquals(parser.serialize(power), payloads.get(POWER_TOPIC));
+	}
+
+	@Test
+	public void testInterval() throws Exception {
+		CountDownLatch flushed = new CountDownLatch(1);
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 10, TimeUnit.MILLISECONDS, 0, (topic, payload) -> {
+			payloads.put(topic, payload);
+			flushed.countDown();
+		});
+		coalescer.start();
+		try {
+			coalescer.offer(new NodeParserContainer(POWER_TOPIC, "", record(1000)));
+			assertTrue(flushed.await(5, TimeUnit.SECONDS));
+			
+		} finally {
+			coalescer.close();
+		}
+		assertTrue(payloads.containsKey(POWER_TOPIC));
+	}
+
+	@Test
+	public void testConcurrentFinalState() throws Exception {
+		int updates = 10000;
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 1, TimeUnit.MILLISECONDS, 64, payloads::put);
+		coalescer.start();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (String topic : new String[] { POWER_TOPIC, STIMULUS_TOPIC, "esg/node/energy" }) {
+			threads.add(new Thread(() -> {
+				try {
+					for (int i = 0; i <= updates; i++) {
+						coalescer.offer(new NodeParserContainer(topic, "", new Record(new DoubleValue(i), (long) i)));
+					}
+				} catch (SerializationException e) {
+					throw new IllegalStateException(e);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		coalescer.close();
+		
+		for (String topic : new String[] { POWER_TOPIC, STIMULUS_TOPIC, "esg/node/energy" }) {
+			NodeParserContainer container = new NodeParserContainer(topic);
+			assertEquals(updates, (long) parser.deserialize(payloads.get(topic), container).getTimestamp());
+		}
+		assertTrue(coalescer.getCoalescedCount() > 0);
+	}
+
+	@Test
+	public void testForecast() {
+		RecordCoalescer coalescer = new RecordCoalescer(parser, 0, TimeUnit.SECONDS, 0, payloads::put);
+		assertThrows(SerializationException.class, 
+				() -> coalescer.offer(new NodeParserContainer("esg/node/stimulus/forecast", "hour=1", .5)));
+	}
+
+	private static Record record(double value) {
+		return new Record(new DoubleValue(value), System.currentTimeMillis(), Flag.VALID);
+	}
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024-2025 ISC Konstanz
+ *
+ * This file is part of OpenESG.
+ * For more information visit http://www.openmuc.org
+ *
+ * OpenESG is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * OpenESG is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with OpenESG.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package org.openmuc.framework.lib.parser.esg.test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openmuc.framework.datalogger.spi.LoggingRecord;
+import org.openmuc.framework.lib.parser.esg.NodeParser;
+import org.openmuc.framework.lib.parser.esg.RecordSeries;
+import org.openmuc.framework.lib.parser.esg.json.ValueScaling;
+import org.openmuc.framework.parser.spi.SerializationException;
+
+
+public class ValueScalingTest {
+
+	@Test
+	public void testScale() {
+		double[] values = { 1, 2, 3, 4, 5 };
+		ValueScaling.scale(values, 1, 3, 0.5);
+		assertArrayEquals(new double[] { 1, 1, 1.5, 2, 5 }, values);
+		
+		double[] target = new double[4];
+		ValueScaling.divide(values, 0, target, 1, 3, 0.001);
+		assertArrayEquals(new double[] { 0, 1000, 1000, 1500 }, target);
+		
+		assertThrows(IndexOutOfBoundsException.class, () -> ValueScaling.scale(values, 3, 3, 2));
+	}
+
+	@Test
+	public void testSeries() throws SerializationException {
+		NodeParser parser = new NodeParser();
+		List<LoggingRecord> containers = new ArrayList<LoggingRecord>();
+		for (int hour = 0; hour < 24; hour++) {
+			containers.add(new NodeParserContainer("esg/node/power/forecast", "hour=" + hour, hour*1000 + .5));
+		}
+		RecordSeries series = parser.deserializeSeries(parser.serialize(containers), containers.get(0));
+		
+		double[] values = series.getValues();
+		assertEquals(24, values.length);
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(series.getValue(i), values[i]);
+		}
+		double[] target = new double[26];
+		series.getValues(target, 2);
+		assertEquals(values[23], target[25]);
+	}
+
+}